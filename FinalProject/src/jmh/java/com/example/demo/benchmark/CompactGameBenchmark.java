@@ -0,0 +1,98 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.CompactGame;
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.GameQuery;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.ResultSetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares holding a catalog as VideoGame objects with holding it as CompactGame. Setup prints the heap each form
+ * retains; the benchmarks filter the whole catalog by genre and platform, by splitting strings and by dictionary id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class CompactGameBenchmark {
+
+    @Param({"100000"})
+    public int games;
+
+    @Param({"DETAIL", "LIST"})
+    public GameProjection projection;
+
+    private final Set<String> genres = Set.of("Shooter", "Indie");
+    private final Set<String> platforms = Set.of("Linux");
+
+    private List<VideoGame> videoGames;
+    private CompactGame[] compactGames;
+
+    @Setup
+    public void setUp() throws Exception {
+        long before = usedHeap();
+        videoGames = parse();
+        long withVideoGames = usedHeap();
+
+        compactGames = videoGames.stream().map(CompactGame::of).toArray(CompactGame[]::new);
+        videoGames = null;
+        long withCompactGames = usedHeap();
+        videoGames = parse();
+
+        System.out.printf("%n%s, %d games: VideoGame %.1f MB, CompactGame %.1f MB%n", projection, games,
+                (withVideoGames - before) / 1e6, (withCompactGames - before) / 1e6);
+    }
+
+    @Benchmark
+    public long filterVideoGames() {
+        return videoGames.stream()
+                .filter(game -> !Collections.disjoint(genres, ResultSetMapper.splitJoined(game.getGenre())))
+                .filter(game -> !Collections.disjoint(platforms, ResultSetMapper.splitJoined(game.getPlatform())))
+                .count();
+    }
+
+    @Benchmark
+    public long filterCompactGames() {
+        Predicate<CompactGame> filter = CompactGame.matching(GameQuery.builder().genres(genres).platforms(platforms).build());
+        long count = 0;
+        for (CompactGame game : compactGames) {
+            if (filter.test(game)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private List<VideoGame> parse() throws Exception {
+        return ResultSetMapper.mapApiResponseToVideoGames(
+                new ByteArrayInputStream(IgdbPayloads.games(games, 42, projection)), projection);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
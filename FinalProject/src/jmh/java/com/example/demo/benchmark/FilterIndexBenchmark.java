@@ -0,0 +1,123 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.CompactGame;
+import com.example.demo.model.GameQuery;
+import com.example.demo.util.FilterIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Answers one filtered list request the way GameSearchIndex does: the top 20 games by rating passing a genre,
+ * platform, rating and release year filter, plus genre and platform counts that each leave out their own filter.
+ * Compares scanning CompactGame objects with intersecting FilterIndex bitmaps and walking a precomputed sort order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FilterIndexBenchmark {
+
+    private static final int PAGE = 20;
+
+    @Param({"100000", "1000000"})
+    public int games;
+
+    private final List<String> genres = List.of("Shooter", "Indie");
+    private final List<String> platforms = List.of("Linux", "Mac");
+    private final GameQuery query = GameQuery.builder().genres(genres).platforms(platforms)
+            .minRating(70.0).maxRating(90.0).minYear(2005).maxYear(2015).build();
+
+    private CompactGame[] compactGames;
+    private FilterIndex filters;
+    private int[] byRating;
+
+    @Setup
+    public void setUp() {
+        compactGames = IgdbPayloads.videoGames(games, 42).stream().map(CompactGame::of).toArray(CompactGame[]::new);
+
+        FilterIndex.Builder builder = new FilterIndex.Builder("genre", "platform");
+        for (CompactGame game : compactGames) {
+            int doc = builder.add(game.getRating(), game.getReleaseDay());
+            builder.tag(doc, "genre", game.getGenres()).tag(doc, "platform", game.getPlatforms());
+        }
+        filters = builder.build();
+        byRating = Arrays.stream(compactGames).sorted(Comparator.comparingDouble(CompactGame::getRating)
+                        .thenComparingLong(CompactGame::getGameId))
+                .mapToInt(game -> (int) (game.getGameId() - 1000)).toArray();
+    }
+
+    @Benchmark
+    public void scanCompactGames(Blackhole blackhole) {
+        Predicate<CompactGame> inGenre = CompactGame.matching(GameQuery.builder().genres(genres).build());
+        Predicate<CompactGame> onPlatform = CompactGame.matching(GameQuery.builder().platforms(platforms).build());
+        Predicate<CompactGame> inBands = CompactGame.matching(GameQuery.builder()
+                .minRating(70.0).maxRating(90.0).minYear(2005).maxYear(2015).build());
+
+        Map<String, Integer> genreCounts = new HashMap<>();
+        Map<String, Integer> platformCounts = new HashMap<>();
+        PriorityQueue<CompactGame> top = new PriorityQueue<>(Comparator.comparingDouble(CompactGame::getRating)
+                .thenComparingLong(CompactGame::getGameId));
+        for (CompactGame game : compactGames) {
+            if (!inBands.test(game)) {
+                continue;
+            }
+            boolean genre = inGenre.test(game);
+            boolean platform = onPlatform.test(game);
+            if (platform) {
+                game.getGenres().forEach(name -> genreCounts.merge(name, 1, Integer::sum));
+            }
+            if (genre) {
+                game.getPlatforms().forEach(name -> platformCounts.merge(name, 1, Integer::sum));
+            }
+            if (genre && platform) {
+                top.add(game);
+                if (top.size() > PAGE) {
+                    top.poll();
+                }
+            }
+        }
+        blackhole.consume(top);
+        blackhole.consume(genreCounts);
+        blackhole.consume(platformCounts);
+    }
+
+    @Benchmark
+    public void intersectBitmaps(Blackhole blackhole) {
+        long[] bands = FilterIndex.and(
+                filters.ratingBetween(query.getMinRating(), query.getMaxRating()),
+                filters.releasedBetween((int) LocalDate.of(query.getMinYear(), 1, 1).toEpochDay(),
+                        (int) LocalDate.of(query.getMaxYear(), 12, 31).toEpochDay()));
+        long[] genre = filters.anyOf("genre", query.getGenres());
+        long[] platform = filters.anyOf("platform", query.getPlatforms());
+
+        long[] genreBase = FilterIndex.and(bands.clone(), platform);
+        long[] platformBase = FilterIndex.and(bands, genre);
+        long[] matching = FilterIndex.and(platformBase.clone(), platform);
+
+        blackhole.consume(FilterIndex.select(matching, byRating, byRating.length, true, 0, PAGE));
+        blackhole.consume(filters.counts("genre", genreBase));
+        blackhole.consume(filters.counts("platform", platformBase));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.GameQuery;
+import com.example.demo.service.GameDataService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the IGDB query string for /api/games filter and sort requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterQueryBenchmark {
+
+    public int limit = 10;
+    public int offset = 240;
+    public String genre = "Role-playing (RPG)";
+    public String platform = "PC (Microsoft Windows)";
+    public double rating = 75;
+
+    @Benchmark
+    public String noFilters() {
+        return GameDataService.buildQuery(GameQuery.builder().page(limit, offset).build());
+    }
+
+    @Benchmark
+    public String allFilters() {
+        return GameDataService.buildQuery(GameQuery.builder()
+                .genres(List.of(genre, "Adventure"))
+                .platforms(List.of(platform))
+                .minRating(rating)
+                .sort("rating", "desc")
+                .page(limit, offset)
+                .build());
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.VideoGame;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Builds IGDB-shaped /v4/games response bodies for benchmarks, using the same fields GameDataService requests.
+ */
+public class IgdbPayloads {
+
+    private static final String[] GENRES = {
+            "Adventure", "Role-playing (RPG)", "Shooter", "Strategy", "Indie", "Platform", "Puzzle", "Racing",
+            "Simulator", "Sport", "Fighting", "Arcade", "Hack and slash/Beat 'em up", "Turn-based strategy (TBS)"
+    };
+
+    private static final String[] PLATFORMS = {
+            "PC (Microsoft Windows)", "PlayStation 4", "PlayStation 5", "Xbox One", "Xbox Series X|S",
+            "Nintendo Switch", "Mac", "Linux", "iOS", "Android"
+    };
+
+    private static final String[] COMPANIES = {
+            "CD Projekt RED", "Bandai Namco Entertainment", "Nintendo", "Ubisoft Montreal", "Electronic Arts",
+            "Square Enix", "Capcom", "FromSoftware", "Valve Corporation", "Devolver Digital", "Annapurna Interactive"
+    };
+
+    private static final String[] MATURITY_RATINGS = {"Unknown", "E", "E10+", "T", "M", "PEGI 3", "PEGI 12", "PEGI 18"};
+
+    private static final String[] WORDS = {
+            "legend", "shadow", "empire", "quest", "dungeon", "star", "night", "dragon", "city", "racer",
+            "tactics", "island", "forge", "chronicles", "frontier", "echo", "hollow", "kingdom", "rift", "saga"
+    };
+
+    private IgdbPayloads() {
+    }
+
+    /**
+     * Builds a response body containing the given number of games.
+     *
+     * @param count the number of games in the array
+     * @param seed  random seed, so runs are comparable
+     * @return the UTF-8 encoded JSON array
+     */
+    public static byte[] games(int count, long seed) {
+        return games(count, seed, GameProjection.DETAIL);
+    }
+
+    /**
+     * Builds a response body with only the fields a projection requests. The games are the same for every
+     * projection given the same seed.
+     *
+     * @param count      the number of games in the array
+     * @param seed       random seed, so runs are comparable
+     * @param projection the projection the response answers
+     * @return the UTF-8 encoded JSON array
+     */
+    public static byte[] games(int count, long seed, GameProjection projection) {
+        boolean detail = projection == GameProjection.DETAIL;
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder(count * 1200).append('[');
+
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            long id = 1000 + i;
+            json.append("{\"id\":").append(id)
+                    .append(",\"cover\":{\"id\":").append(90000 + i)
+                    .append(",\"url\":\"//images.igdb.com/igdb/image/upload/t_thumb/co").append(Long.toString(id, 36)).append(".jpg\"}")
+                    .append(",\"first_release_date\":").append(946684800L + random.nextInt(800_000_000))
+                    .append(",\"genres\":");
+            appendNamedArray(json, GENRES, 1 + random.nextInt(3), random);
+            StringBuilder companyJson = new StringBuilder(",\"involved_companies\":[");
+            int companies = 1 + random.nextInt(4);
+            for (int c = 0; c < companies; c++) {
+                if (c > 0) {
+                    companyJson.append(',');
+                }
+                companyJson.append("{\"id\":").append(id * 10 + c)
+                        .append(",\"company\":{\"id\":").append(random.nextInt(5000))
+                        .append(",\"name\":\"").append(COMPANIES[random.nextInt(COMPANIES.length)]).append("\"}")
+                        .append(",\"publisher\":").append(c == companies - 1).append('}');
+            }
+            if (detail) {
+                json.append(companyJson).append(']');
+            }
+            json.append(",\"name\":\"").append(title(random)).append('"')
+                    .append(",\"platforms\":");
+            appendNamedArray(json, PLATFORMS, 1 + random.nextInt(5), random);
+            json.append(",\"rating\":").append(40 + random.nextDouble() * 60);
+            String summary = sentence(random, 40 + random.nextInt(80));
+            if (detail) {
+                json.append(",\"summary\":\"").append(summary).append('"');
+            }
+            json.append(",\"total_rating_count\":").append(random.nextInt(5000))
+                    .append('}');
+        }
+
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds list-projection games directly, like {@link #games} would map to, for catalogs too large to go through
+     * JSON in a benchmark setup.
+     *
+     * @param count the number of games
+     * @param seed  random seed, so runs are comparable
+     * @return the games, with ids from 1000
+     */
+    public static List<VideoGame> videoGames(int count, long seed) {
+        Random random = new Random(seed);
+        List<VideoGame> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            VideoGame game = new VideoGame();
+            game.setGameId(1000L + i);
+            game.setGameName(title(random));
+            game.setReleaseDate(LocalDate.ofEpochDay(10957 + random.nextInt(9260)).toString()); // 2000 to 2025
+            game.setGenre(joinNames(GENRES, 1 + random.nextInt(3), random));
+            game.setPlatform(joinNames(PLATFORMS, 1 + random.nextInt(5), random));
+            game.setRating(Math.round((40 + random.nextDouble() * 60) * 100) / 100.0);
+            game.setReviewCount(random.nextInt(5000));
+            game.setMaturityRating(MATURITY_RATINGS[random.nextInt(MATURITY_RATINGS.length)]);
+            game.setImageUrl("//images.igdb.com/igdb/image/upload/t_thumb/co" + Long.toString(1000L + i, 36) + ".jpg");
+            games.add(game);
+        }
+        return games;
+    }
+
+    private static String joinNames(String[] names, int count, Random random) {
+        return random.ints(count, 0, names.length).distinct().mapToObj(index -> names[index]).collect(Collectors.joining(", "));
+    }
+
+    private static void appendNamedArray(StringBuilder json, String[] names, int count, Random random) {
+        json.append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            int index = random.nextInt(names.length);
+            json.append("{\"id\":").append(index + 1).append(",\"name\":\"").append(names[index]).append("\"}");
+        }
+        json.append(']');
+    }
+
+    private static String title(Random random) {
+        String first = WORDS[random.nextInt(WORDS.length)];
+        String second = WORDS[random.nextInt(WORDS.length)];
+        return Character.toUpperCase(first.charAt(0)) + first.substring(1) + " of the "
+                + Character.toUpperCase(second.charAt(0)) + second.substring(1);
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.append('.').toString();
+    }
+}
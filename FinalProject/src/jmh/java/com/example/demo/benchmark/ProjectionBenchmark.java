@@ -0,0 +1,53 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.util.ResultSetMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one /api/games page end to end on our side: decoding the IGDB response for a projection and
+ * serializing the games back to JSON for the browser. Setup prints the upstream and response sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param({"10", "50"})
+    public int games;
+
+    @Param({"LIST", "DETAIL"})
+    public GameProjection projection;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        body = IgdbPayloads.games(games, 42, projection);
+        System.out.printf("%n%s, %d games: %d bytes from IGDB, %d bytes to the browser%n",
+                projection, games, body.length, mapAndSerialize().length);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws Exception {
+        return mapper.writeValueAsBytes(ResultSetMapper.mapApiResponseToVideoGames(new ByteArrayInputStream(body), projection));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.ResultSetMapper;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old response path (read lines into a String, build a JSONArray, map it) with the
+ * streaming mapper that decodes straight from the response stream. Run with the default
+ * {@code -prof gc} to see allocation per operation next to latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultSetMapperBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int games;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        body = IgdbPayloads.games(games, 42);
+    }
+
+    @Benchmark
+    public List<VideoGame> stringAndJsonArray() throws Exception {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body)));
+        StringBuilder response = new StringBuilder();
+        String inputLine;
+        while ((inputLine = in.readLine()) != null) {
+            response.append(inputLine);
+        }
+        in.close();
+
+        return ResultSetMapper.mapApiResponseToVideoGames(new JSONArray(response.toString()));
+    }
+
+    @Benchmark
+    public List<VideoGame> streaming() throws Exception {
+        return ResultSetMapper.mapApiResponseToVideoGames(new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.config.DataSourceConfig;
+import com.example.demo.model.GamesPlayed;
+import com.example.demo.service.ReviewService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the ReviewService read path behind the game details page and the review write path,
+ * against a temporary SQLite file using the same pools as the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReviewServiceBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int GAMES = 1_000;
+
+    private Path dbDir;
+    private DataSource readPool;
+    private DataSource writePool;
+    private ReviewService reviewService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbDir = Files.createTempDirectory("review-bench");
+        DataSourceConfig config = new DataSourceConfig();
+        ReflectionTestUtils.setField(config, "dbUrl", "jdbc:sqlite:" + dbDir.resolve("video_games.db"));
+        ReflectionTestUtils.setField(config, "readPoolSize", 8);
+        ReflectionTestUtils.setField(config, "busyTimeoutMs", 5000);
+        readPool = config.dataSource();
+        writePool = config.writeDataSource();
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(writePool);
+
+        reviewService = new ReviewService();
+        ReflectionTestUtils.setField(reviewService, "dataSource", readPool);
+        ReflectionTestUtils.setField(reviewService, "writeDataSource", writePool);
+        ReflectionTestUtils.setField(reviewService, "meterRegistry", new SimpleMeterRegistry());
+
+        // Ten reviews per user spread over the catalog
+        for (int user = 0; user < USERS; user++) {
+            for (int i = 0; i < 10; i++) {
+                reviewService.saveReview(review(user, (user * 10L + i) % GAMES));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ((HikariDataSource) readPool).close();
+        ((HikariDataSource) writePool).close();
+        try (var files = Files.list(dbDir)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dbDir);
+    }
+
+    /**
+     * The lookups GameController makes for every game details view: the user's own review and the rating aggregate.
+     */
+    @Benchmark
+    public void gamePageReads(Blackhole blackhole) {
+        long user = ThreadLocalRandom.current().nextInt(USERS);
+        long game = ThreadLocalRandom.current().nextInt(GAMES);
+        blackhole.consume(reviewService.getReview(user, game));
+        blackhole.consume(reviewService.getRatingStats(game));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void gamePageReadsConcurrent(Blackhole blackhole) {
+        gamePageReads(blackhole);
+    }
+
+    @Benchmark
+    public boolean saveReview() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return reviewService.saveReview(review(random.nextInt(USERS), random.nextInt(GAMES)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean saveReviewConcurrent() {
+        return saveReview();
+    }
+
+    private static GamesPlayed review(long userId, long gameId) {
+        GamesPlayed review = new GamesPlayed();
+        review.setUserId(userId);
+        review.setGameId(gameId);
+        review.setRatingScore(ThreadLocalRandom.current().nextInt(101));
+        review.setReviewComment("Benchmark review");
+        return review;
+    }
+}
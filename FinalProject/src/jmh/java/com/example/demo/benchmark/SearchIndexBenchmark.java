@@ -0,0 +1,67 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.InvertedIndex;
+import com.example.demo.util.ResultSetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one page of /api/games?query= results from the in-memory search index, with the weights
+ * GameSearchIndex uses. The synthetic catalog has a 20-word vocabulary, so every query matches a large
+ * share of the games; real catalogs have far shorter posting lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchIndexBenchmark {
+
+    @Param({"10000", "50000"})
+    public int games;
+
+    private InvertedIndex index;
+
+    @Setup
+    public void setUp() throws Exception {
+        InvertedIndex.Builder builder = new InvertedIndex.Builder(3.0, 1.0, 1.0, 0.5);
+        for (VideoGame game : ResultSetMapper.mapApiResponseToVideoGames(new ByteArrayInputStream(IgdbPayloads.games(games, 42)))) {
+            builder.add(game.getGameName(), game.getDeveloper(), game.getPublisher(), game.getDescription());
+        }
+        index = builder.build();
+    }
+
+    @Benchmark
+    public int[] singleWord() {
+        return index.search("dragon", 10, 0);
+    }
+
+    @Benchmark
+    public int[] twoWords() {
+        return index.search("dragon kingdom", 10, 0);
+    }
+
+    @Benchmark
+    public int[] prefix() {
+        return index.search("dragon king", 10, 0);
+    }
+
+    @Benchmark
+    public int[] typo() {
+        return index.search("dargon", 10, 0);
+    }
+}
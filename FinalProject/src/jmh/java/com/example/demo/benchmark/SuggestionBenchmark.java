@@ -0,0 +1,62 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.PrefixIndex;
+import com.example.demo.util.ResultSetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures /api/suggest lookups: the top 8 completions of a prefix by review count. Synthetic names are
+ * built from 20 words, so short prefixes match a large share of the catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionBenchmark {
+
+    @Param({"50000"})
+    public int games;
+
+    private PrefixIndex index;
+
+    @Setup
+    public void setUp() throws Exception {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        for (VideoGame game : ResultSetMapper.mapApiResponseToVideoGames(new ByteArrayInputStream(IgdbPayloads.games(games, 42)))) {
+            builder.add(game.getGameId(), game.getGameName(), game.getReviewCount());
+        }
+        index = builder.build();
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Completion> oneLetter() {
+        return index.complete("d", 8, id -> false);
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Completion> twoWords() {
+        return index.complete("dragon of the k", 8, id -> false);
+    }
+
+    @Benchmark
+    public List<PrefixIndex.Completion> noMatch() {
+        return index.complete("zelda", 8, id -> false);
+    }
+}
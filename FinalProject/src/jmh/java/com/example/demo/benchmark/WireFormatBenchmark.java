@@ -0,0 +1,77 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.GameListPage;
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.ResultSetMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the full and compact /api/games formats: serializing a page, and serializing plus gzip as Tomcat
+ * sends it with compression on. Setup prints the bytes per page of each, plain and gzipped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    public enum Format {
+        FULL, COMPACT
+    }
+
+    @Param({"10", "50"})
+    public int games;
+
+    @Param({"FULL", "COMPACT"})
+    public Format format;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private List<VideoGame> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        page = ResultSetMapper.mapApiResponseToVideoGames(
+                new ByteArrayInputStream(IgdbPayloads.games(games, 42, GameProjection.LIST)), GameProjection.LIST);
+        System.out.printf("%n%s, %d games: %d bytes, %d bytes gzipped%n",
+                format, games, serialize().length, serializeAndGzip().length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return mapper.writeValueAsBytes(format == Format.COMPACT ? GameListPage.of(page) : page);
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzip() throws Exception {
+        return gzip(serialize());
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
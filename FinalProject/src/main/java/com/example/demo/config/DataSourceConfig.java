@@ -0,0 +1,70 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${gamefinder.db.url}")
+    private String dbUrl;
+
+    @Value("${gamefinder.db.read-pool-size:8}")
+    private int readPoolSize;
+
+    @Value("${gamefinder.db.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    /**
+     * Pool of long-lived connections used for reads. The database runs in WAL journal mode,
+     * so readers never block on the writer.
+     *
+     * @return the shared read DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return createPool("sqlite-read", readPoolSize);
+    }
+
+    /**
+     * Single-connection pool used for every write, so the application only ever has one
+     * SQLite writer and concurrent saves queue in the pool instead of failing with SQLITE_BUSY.
+     *
+     * @return the shared write DataSource
+     */
+    @Bean
+    public DataSource writeDataSource() {
+        return createPool("sqlite-write", 1);
+    }
+
+    /**
+     * Creates a fixed-size pool of SQLite connections that stay open for the life of the application.
+     *
+     * @param poolName the name of the pool (shows up in logs and metrics)
+     * @param size     the number of connections to keep open
+     * @return the configured pool
+     */
+    private HikariDataSource createPool(String poolName, int size) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(dbUrl);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(size);
+        config.setIdleTimeout(0); // Keep connections open, reopening the file is what we are avoiding
+        config.setMaxLifetime(0);
+        config.setInitializationFailTimeout(-1); // Don't fail startup if the database file is missing
+
+        // Passed through to the driver as SQLite pragmas on every new connection
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        config.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMs));
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.config;
+
+import com.example.demo.util.CircuitBreaker;
+import com.example.demo.util.RequestGovernor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${igdb.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${igdb.rate-limit.requests-per-second:4}")
+    private double requestsPerSecond;
+
+    @Value("${igdb.rate-limit.burst:4}")
+    private int burst;
+
+    @Value("${igdb.rate-limit.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${igdb.rate-limit.max-wait.high:5s}")
+    private Duration maxWaitHigh;
+
+    @Value("${igdb.rate-limit.max-wait.normal:3s}")
+    private Duration maxWaitNormal;
+
+    @Value("${igdb.rate-limit.max-wait.low:1m}")
+    private Duration maxWaitLow;
+
+    @Value("${igdb.circuit-breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${igdb.circuit-breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${igdb.circuit-breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${igdb.circuit-breaker.slow-call-threshold:5s}")
+    private Duration breakerSlowCallThreshold;
+
+    @Value("${igdb.circuit-breaker.slow-call-rate:0.5}")
+    private double breakerSlowCallRate;
+
+    @Value("${igdb.circuit-breaker.open-duration:30s}")
+    private Duration breakerOpenDuration;
+
+    @Value("${igdb.circuit-breaker.half-open-probes:3}")
+    private int breakerHalfOpenProbes;
+
+    /**
+     * The one HTTP client used for all IGDB traffic. It negotiates HTTP/2 and keeps connections
+     * alive between calls, so requests reuse an existing TLS session instead of opening a new socket each time.
+     * When virtual threads are enabled (spring.threads.virtual.enabled on Java 21+), response handling and
+     * the async continuations in the controllers run on virtual threads as well.
+     *
+     * @param environment the Spring environment, used to check the threading mode
+     * @return the shared IGDB HTTP client
+     */
+    @Bean
+    public HttpClient igdbHttpClient(Environment environment) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout);
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("igdb-");
+            executor.setVirtualThreads(true);
+            builder.executor(executor);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Paces all IGDB traffic to IGDB's limits: a request rate, and a number of requests open at once.
+     * Game pages go first, then lists, then background work like catalog ingestion; requests that would wait
+     * longer than their priority allows are turned away instead of piling up.
+     *
+     * @return the shared IGDB request governor
+     */
+    @Bean
+    public RequestGovernor igdbGovernor() {
+        return new RequestGovernor(requestsPerSecond, burst, maxConcurrency, Map.of(
+                RequestGovernor.Priority.HIGH, maxWaitHigh,
+                RequestGovernor.Priority.NORMAL, maxWaitNormal,
+                RequestGovernor.Priority.LOW, maxWaitLow));
+    }
+
+    /**
+     * Stops sending requests to IGDB while most recent ones failed or were slow, and probes for recovery
+     * after the open duration. IgdbClient serves stored answers in the meantime.
+     *
+     * @return the shared IGDB circuit breaker
+     */
+    @Bean
+    public CircuitBreaker igdbCircuitBreaker() {
+        return new CircuitBreaker(breakerWindowSize, breakerMinimumCalls, breakerFailureRate, breakerSlowCallThreshold,
+                breakerSlowCallRate, breakerOpenDuration, breakerHalfOpenProbes);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.config;
+
+import com.example.demo.service.CacheWarmer;
+import com.example.demo.service.IgdbClient;
+import com.example.demo.service.IgdbResponseStore;
+import com.example.demo.util.CircuitBreaker;
+import com.example.demo.util.RequestGovernor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Publishes the counters and state the IGDB governor, circuit breaker, client and cache warmer keep for
+ * themselves. Timers are recorded where the work happens; these are read when the registry is scraped.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * @param igdbGovernor the shared IGDB request governor
+     * @return a binder for the governor's limit, queue and permit counts
+     */
+    @Bean
+    public MeterBinder igdbGovernorMetrics(RequestGovernor igdbGovernor) {
+        return registry -> {
+            Gauge.builder("gamefinder.igdb.governor.limit", igdbGovernor, RequestGovernor::getLimit)
+                    .description("Current concurrency limit for IGDB requests")
+                    .register(registry);
+            Gauge.builder("gamefinder.igdb.governor.in_flight", igdbGovernor, RequestGovernor::getInFlight)
+                    .description("IGDB requests holding a permit")
+                    .register(registry);
+            Gauge.builder("gamefinder.igdb.governor.queued", igdbGovernor, RequestGovernor::getQueued)
+                    .description("IGDB requests waiting for a permit")
+                    .register(registry);
+            FunctionCounter.builder("gamefinder.igdb.governor.permits", igdbGovernor, RequestGovernor::getPermittedCount)
+                    .description("Permits granted to IGDB requests")
+                    .register(registry);
+            FunctionCounter.builder("gamefinder.igdb.governor.shed", igdbGovernor, RequestGovernor::getShedCount)
+                    .description("IGDB requests turned away for waiting too long")
+                    .register(registry);
+            FunctionCounter.builder("gamefinder.igdb.governor.overloaded", igdbGovernor, RequestGovernor::getOverloadedCount)
+                    .description("IGDB requests that ended rate limited or timed out")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param igdbCircuitBreaker the shared IGDB circuit breaker
+     * @return a binder for the breaker's state, trips and rejected calls
+     */
+    @Bean
+    public MeterBinder igdbCircuitBreakerMetrics(CircuitBreaker igdbCircuitBreaker) {
+        return registry -> {
+            for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                Gauge.builder("gamefinder.igdb.circuit.state", igdbCircuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                        .description("1 for the state the IGDB circuit breaker is in, 0 for the others")
+                        .tag("state", state.name())
+                        .register(registry);
+            }
+            FunctionCounter.builder("gamefinder.igdb.circuit.trips", igdbCircuitBreaker, CircuitBreaker::getTripCount)
+                    .description("Times the IGDB circuit breaker opened")
+                    .register(registry);
+            FunctionCounter.builder("gamefinder.igdb.circuit.rejected", igdbCircuitBreaker, CircuitBreaker::getRejectedCount)
+                    .description("IGDB calls refused while the breaker was open")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param igdbClient    the IGDB client
+     * @param responseStore the store of last-known-good IGDB answers
+     * @return a binder for game queries, coalesced queries, and answers served from or dropped by the store
+     */
+    @Bean
+    public MeterBinder igdbClientMetrics(IgdbClient igdbClient, IgdbResponseStore responseStore) {
+        return registry -> {
+            FunctionCounter.builder("gamefinder.igdb.game_queries", igdbClient, IgdbClient::getGameQueryCount)
+                    .description("Game queries asked of the IGDB client, coalesced ones included")
+                    .register(registry);
+            FunctionCounter.builder("gamefinder.igdb.game_queries.coalesced", igdbClient, IgdbClient::getCoalescedGameQueryCount)
+                    .description("Game queries that joined an identical one already in flight")
+                    .register(registry);
+            FunctionCounter.builder("gamefinder.igdb.fallbacks", igdbClient, IgdbClient::getFallbackCount)
+                    .description("IGDB calls answered from stored responses after a failure")
+                    .register(registry);
+            FunctionCounter.builder("gamefinder.igdb.fallbacks.dropped", responseStore, IgdbResponseStore::getDroppedCount)
+                    .description("IGDB answers not stored because the store's writer was behind")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param cacheWarmer the cache warmer
+     * @return a binder for how long the caches took to warm after startup and their early hit rate
+     */
+    @Bean
+    public MeterBinder cacheWarmerMetrics(CacheWarmer cacheWarmer) {
+        return registry -> {
+            Gauge.builder("gamefinder.cache.warm_after_startup", cacheWarmer, warmer -> seconds(warmer.getStartupToWarm()))
+                    .description("Time from JVM start until the startup prefetch finished")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("gamefinder.cache.early_hit_rate", cacheWarmer,
+                            warmer -> warmer.getEarlyHitRate() == null ? Double.NaN : warmer.getEarlyHitRate())
+                    .description("Game and list cache hit rate over the report window after startup")
+                    .register(registry);
+        };
+    }
+
+    private static double seconds(Duration duration) {
+        return duration == null ? Double.NaN : duration.toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class WebConfig {
+
+    /**
+     * Adds an ETag hashed from the rendered HTML to game pages, and answers a matching If-None-Match with 304.
+     * The page is still rendered, since it depends on the visitor's own review, but repeat visits and
+     * back-navigation no longer transfer it again. The JSON endpoints compute their ETags before serializing
+     * instead (see SearchController). The ETag is weak, since compression changes the bytes sent.
+     *
+     * @return the filter registration for /game/*
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> gamePageEtagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/game/*");
+        return registration;
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.VideoGame;
+import com.example.demo.model.GameRatingStats;
 import com.example.demo.model.GamesPlayed;
 import com.example.demo.service.GameDataService;
+import com.example.demo.service.GamePageCache;
 import com.example.demo.service.ReviewService;
 import com.example.demo.util.CookieUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,33 +21,61 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class GameController {
 
+    private static final Logger log = LoggerFactory.getLogger(GameController.class);
+
+    // The page shows the visitor's own review, so only the browser may keep it, and it revalidates every time;
+    // the ETag filter makes that a 304 while nothing changed
+    private static final CacheControl GAME_PAGE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private GameDataService gameDataService;
 
     @Autowired
     private ReviewService reviewService;
 
+    @Autowired
+    private GamePageCache gamePageCache;
+
     /**
      * Handles requests for individual game details.
      *
-     * @param gameId  the ID of the game
-     * @param model   Spring model to pass data to the view
-     * @param request the HTTP request to retrieve cookies
-     * @return the name of the Thymeleaf template (game-details.html)
+     * @param gameId   the ID of the game
+     * @param model    Spring model to pass data to the view
+     * @param request  the HTTP request to retrieve cookies
+     * @param response the HTTP response, to set its cache policy
+     * @return the future name of the Thymeleaf template (game-details.html); the servlet thread is
+     *         released while the game is fetched from IGDB
      */
     @GetMapping("/game/{gameId}")
-    public String gameDetails(@PathVariable Long gameId, Model model, HttpServletRequest request) {
-        VideoGame videoGame = gameDataService.getGameById(gameId);
+    public CompletableFuture<String> gameDetails(@PathVariable Long gameId, Model model, HttpServletRequest request,
+                                                 HttpServletResponse response) {
+        // Read the cookie up front, the request may be recycled by the time the game arrives
+        String userIdValue = CookieUtil.getCookieValue(request, "userId");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, GAME_PAGE_CACHE_CONTROL.getHeaderValue());
+
+        return gameDataService.getGameByIdAsync(gameId)
+                .thenApply(videoGame -> renderGameDetails(gameId, videoGame, userIdValue, model));
+    }
+
+    /**
+     * Fills the model for the game details page once the game has been loaded.
+     *
+     * @param gameId      the ID of the game
+     * @param videoGame   the loaded game, or null if it was not found
+     * @param userIdValue the userId cookie value, or null for guests
+     * @param model       Spring model to pass data to the view
+     * @return the name of the Thymeleaf template to render
+     */
+    private String renderGameDetails(Long gameId, VideoGame videoGame, String userIdValue, Model model) {
         if (videoGame == null) {
             return "error/404"; // Redirect to a 404 error page if game is not found
         }
 
-        // Retrieve userId from cookies
-        String userIdValue = CookieUtil.getCookieValue(request, "userId");
         boolean isGuest = userIdValue == null || userIdValue.equals("-1");
 
         if (!isGuest) {
@@ -59,18 +93,19 @@ public class GameController {
         model.addAttribute("isGuest", isGuest);
 
         // Combine reviews from the database and the game model
-        double dbReviewTotal = reviewService.getTotalReviewScore(gameId);
-        int dbReviewCount = reviewService.getReviewCount(gameId);
-
-        double combinedReviewValue = (videoGame.getRating() * videoGame.getReviewCount() + dbReviewTotal) /
-                (videoGame.getReviewCount() + dbReviewCount);
-        combinedReviewValue = Math.round(combinedReviewValue * 100.0) / 100.0;
-        int combinedReviewCount = videoGame.getReviewCount() + dbReviewCount;
-
-        videoGame.setRating(combinedReviewValue);
+        GameRatingStats stats = reviewService.getRatingStats(gameId);
+        int combinedReviewCount = videoGame.getReviewCount() + stats.getCount();
+
+        if (combinedReviewCount > 0) {
+            double combinedReviewValue = (videoGame.getRating() * videoGame.getReviewCount() + stats.getTotal()) /
+                    combinedReviewCount;
+            combinedReviewValue = Math.round(combinedReviewValue * 100.0) / 100.0;
+            videoGame.setRating(combinedReviewValue);
+        }
         videoGame.setReviewCount(combinedReviewCount);
 
         model.addAttribute("videoGame", videoGame);
+        model.addAttribute("gamePage", gamePageCache.get(videoGame));
         return "game-details"; // Render the game-details.html page
     }
 
@@ -94,12 +129,13 @@ public class GameController {
             review.setUserId(userId);
             boolean success = reviewService.saveReview(review);
             if (success) {
+                gamePageCache.evict(review.getGameId());
                 return "redirect:/game/" + review.getGameId() + "?reviewStatus=success";
             } else {
                 return "redirect:/game/" + review.getGameId() + "?reviewStatus=error";
             }
         } catch (NumberFormatException e) {
-            e.printStackTrace();
+            log.warn("Ignoring a review with an invalid userId cookie: {}", userIdValue);
             return "redirect:/game/" + review.getGameId() + "?reviewStatus=error";
         }
     }
@@ -1,25 +1,75 @@
 package com.example.demo.controller;
 
+import com.example.demo.model.FacetCount;
+import com.example.demo.model.GameFacets;
+import com.example.demo.model.GameListPage;
+import com.example.demo.model.GameQuery;
+import com.example.demo.model.Suggestion;
 import com.example.demo.model.VideoGame;
+import com.example.demo.service.FacetRegistry;
 import com.example.demo.service.GameDataService;
+import com.example.demo.service.GameSearchIndex;
+import com.example.demo.service.SuggestionService;
+import com.example.demo.util.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.util.DigestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 public class SearchController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String COMPACT_FORMAT = "compact";
+
+    // Most games one batch request may ask for
+    private static final int MAX_BATCH_IDS = 200;
+
+    // Facets change rarely; browsers revalidate with If-None-Match once this expires
+    private static final CacheControl FACET_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(1))
+            .staleWhileRevalidate(Duration.ofDays(1)).cachePublic();
+
+    // Game lists change as IGDB and reviews do. Fresh long enough for back-navigation and re-scrolling, then
+    // served stale while one revalidation, usually a 304, runs in the background
+    private static final CacheControl GAME_LIST_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(1))
+            .staleWhileRevalidate(Duration.ofMinutes(10)).cachePublic();
+
+    // Games by ID change far less often than which games a list holds
+    private static final CacheControl GAME_BATCH_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(10))
+            .staleWhileRevalidate(Duration.ofHours(1)).cachePublic();
+
+    private static final CacheControl SUGGEST_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    // Empty lists are also what an IGDB error, or facets not loaded yet, look like, so they are always revalidated
+    private static final CacheControl EMPTY_CACHE_CONTROL = CacheControl.noCache();
+
     @Autowired
     private GameDataService gameDataService;
 
+    @Autowired
+    private FacetRegistry facetRegistry;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private GameSearchIndex searchIndex;
+
     /**
      * Handles the /search endpoint and renders the search.html page.
      * Initially fetches 10 games from the IGDB API.
@@ -41,66 +91,231 @@ public class SearchController {
     /**
      * Handles requests for paginated game data from the IGDB API.
      * This method returns JSON data for the frontend to handle dynamically.
+     * <p>
+     * Filters are applied at the source, all at once: several genres (or platforms) match games having any of them,
+     * and the genre, platform and rating filters must all match. Search results honor the filters too.
+     * <p>
+     * Pages can be requested by offset or by cursor. The first page (offset 0) and every cursor page come with an
+     * X-Next-Cursor header, absent on the last page; passing it back as cursor fetches the next page by sort key,
+     * so deep pages are as cheap as the first and items don't shift between pages.
+     * <p>
+     * Pages carry an ETag hashed from their games and may be cached briefly. A request whose If-None-Match
+     * matches gets a 304 with the same headers and no body, so the games are never serialized.
+     * <p>
+     * With format=compact the page is sent as a {@link GameListPage}, which drops placeholders and lists each
+     * genre and platform name once.
      *
      * @param limit          the number of games to fetch
-     * @param offset         the starting point for fetching games
+     * @param offset         the starting point for fetching games, ignored when a cursor is given
+     * @param cursor         optional cursor from the X-Next-Cursor header of the previous page
      * @param query          optional search term for filtering games
-     * @param filterGenre    optional genre filter
-     * @param filterDeveloper optional developer filter
-     * @param filterPlatform optional platform filter
-     * @param filterRating   optional rating filter
+     * @param filterGenre    optional genre filter, repeatable
+     * @param filterPlatform optional platform filter, repeatable
+     * @param filterRating   optional minimum rating
+     * @param maxRating      optional maximum rating
+     * @param minYear        optional first release year
+     * @param maxYear        optional last release year
      * @param sortBy         optional sorting field
      * @param sortOrder      optional sorting order (asc/desc)
-     * @return ResponseEntity containing a list of VideoGame objects
+     * @param format         "compact" for a {@link GameListPage}, anything else for a list of VideoGame objects
+     * @return a future ResponseEntity containing the page of games; the servlet thread is
+     *         released while IGDB responds. 400 if the cursor is invalid or belongs to another sort,
+     *         304 if the client's copy is current.
      */
     @GetMapping("/api/games")
-    public ResponseEntity<List<VideoGame>> getGames(@RequestParam(defaultValue = "10") int limit,
+    public CompletableFuture<ResponseEntity<?>> getGames(@RequestParam(defaultValue = "10") int limit,
                                                     @RequestParam(defaultValue = "0") int offset,
+                                                    @RequestParam(required = false) String cursor,
                                                     @RequestParam(required = false) String query,
-                                                    @RequestParam(required = false) String filterGenre,
-                                                    @RequestParam(required = false) String filterPlatform,
-                                                    @RequestParam(required = false) String filterRating,
+                                                    @RequestParam(required = false) List<String> filterGenre,
+                                                    @RequestParam(required = false) List<String> filterPlatform,
+                                                    @RequestParam(required = false) Double filterRating,
+                                                    @RequestParam(required = false) Double maxRating,
+                                                    @RequestParam(required = false) Integer minYear,
+                                                    @RequestParam(required = false) Integer maxYear,
                                                     @RequestParam(defaultValue = "name") String sortBy,
-                                                    @RequestParam(defaultValue = "asc") String sortOrder) {
-        // Define cache control headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("Cache-Control", "no-cache, no-store, must-revalidate");
-        headers.add("Pragma", "no-cache");
-        headers.add("Expires", "0");
-
-        List<VideoGame> games;
-
-        if (query != null && !query.isEmpty()) {
-            // Perform search if query is provided
-            games = gameDataService.searchGames(query, limit, offset);
-        } else {
-            // Fetch games with filters and sorting
-            games = gameDataService.getGamesWithFilters(limit, offset, filterGenre,  filterPlatform, filterRating, sortBy, sortOrder);
+                                                    @RequestParam(defaultValue = "asc") String sortOrder,
+                                                    @RequestParam(defaultValue = "full") String format) {
+        GameQuery.Builder builder = GameQuery.builder()
+                .search(query)
+                .genres(filterGenre)
+                .platforms(filterPlatform)
+                .minRating(filterRating)
+                .maxRating(maxRating)
+                .minYear(minYear)
+                .maxYear(maxYear)
+                .sort(sortBy, sortOrder)
+                .page(limit, offset);
+
+        PageCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            GameQuery unpaged = builder.build();
+            try {
+                after = PageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+            }
+            if (!after.matches(unpaged.getSortBy(), unpaged.getSortOrder())) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+            }
         }
 
-        // Return the response with headers
-        return ResponseEntity.ok().headers(headers).body(games);
+        GameQuery gameQuery = builder.after(after).build();
+        boolean paged = after != null || offset == 0;
+
+        return gameDataService.findGamesAsync(gameQuery).thenApply(body -> {
+            HttpHeaders headers = new HttpHeaders();
+            PageCursor next = paged ? gameQuery.nextCursor(body) : null;
+            if (next != null) {
+                headers.add(NEXT_CURSOR_HEADER, next.encode());
+            }
+            ResponseEntity.BodyBuilder response = conditional(body, GAME_LIST_CACHE_CONTROL).headers(headers);
+            return COMPACT_FORMAT.equals(format) ? response.body(GameListPage.of(body)) : response.body(body);
+        });
+    }
+
+    /**
+     * Handles requests for several games by ID at once, so the front end can fill a set of game cards with one
+     * request instead of one per game.
+     *
+     * @param ids the IDs of the games, comma separated or repeated
+     * @return a future ResponseEntity containing the games found, in the order of their IDs; unknown IDs are
+     *         left out. 400 if more than 200 IDs are asked for, 304 if the client's copy is current.
+     */
+    @GetMapping("/api/games/batch")
+    public CompletableFuture<ResponseEntity<List<VideoGame>>> getGamesByIds(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return gameDataService.getGamesByIdsAsync(ids).thenApply(games -> conditional(games, GAME_BATCH_CACHE_CONTROL).body(games));
     }
 
     /**
-     * Handles requests for genres from the IGDB API.
+     * Handles requests for the facet counts of a result: how many games match the search and filters, and how many
+     * of them have each genre, platform and maturity rating. Counted in memory over the local mirror.
+     *
+     * @param query          optional search term
+     * @param filterGenre    optional genre filter, repeatable
+     * @param filterPlatform optional platform filter, repeatable
+     * @param filterRating   optional minimum rating
+     * @param maxRating      optional maximum rating
+     * @param minYear        optional first release year
+     * @param maxYear        optional last release year
+     * @return ResponseEntity containing the counts, or 503 while the local index is not built
+     */
+    @GetMapping("/api/games/facets")
+    public ResponseEntity<GameFacets> getGameFacets(@RequestParam(required = false) String query,
+                                                    @RequestParam(required = false) List<String> filterGenre,
+                                                    @RequestParam(required = false) List<String> filterPlatform,
+                                                    @RequestParam(required = false) Double filterRating,
+                                                    @RequestParam(required = false) Double maxRating,
+                                                    @RequestParam(required = false) Integer minYear,
+                                                    @RequestParam(required = false) Integer maxYear) {
+        if (!searchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        GameQuery gameQuery = GameQuery.builder()
+                .search(query)
+                .genres(filterGenre)
+                .platforms(filterPlatform)
+                .minRating(filterRating)
+                .maxRating(maxRating)
+                .minYear(minYear)
+                .maxYear(maxYear)
+                .build();
+        return ResponseEntity.ok().cacheControl(GAME_LIST_CACHE_CONTROL).body(searchIndex.facets(gameQuery));
+    }
+
+    /**
+     * Handles requests for genres. Served from memory with an ETag, so a matching
+     * If-None-Match gets a 304 without a body.
      *
      * @return ResponseEntity containing a list of genres
      */
     @GetMapping("/api/genres")
     public ResponseEntity<List<String>> getGenres() {
-        List<String> genres = gameDataService.getGenres();
-        return ResponseEntity.ok().body(genres);
+        FacetRegistry.Facets facets = facetRegistry.snapshot();
+        return ResponseEntity.ok()
+                .eTag(facets.genresEtag())
+                .cacheControl(facets.genres().isEmpty() ? EMPTY_CACHE_CONTROL : FACET_CACHE_CONTROL)
+                .body(facets.genres());
     }
 
     /**
-     * Handles requests for platforms from the IGDB API.
+     * Handles requests for platforms. Served from memory with an ETag, so a matching
+     * If-None-Match gets a 304 without a body.
      *
      * @return ResponseEntity containing a list of platforms
      */
     @GetMapping("/api/platforms")
     public ResponseEntity<List<String>> getPlatforms() {
-        List<String> platforms = gameDataService.getPlatforms();
-        return ResponseEntity.ok().body(platforms);
+        FacetRegistry.Facets facets = facetRegistry.snapshot();
+        return ResponseEntity.ok()
+                .eTag(facets.platformsEtag())
+                .cacheControl(facets.platforms().isEmpty() ? EMPTY_CACHE_CONTROL : FACET_CACHE_CONTROL)
+                .body(facets.platforms());
+    }
+
+    /**
+     * Handles requests for the number of locally mirrored games per genre and per platform.
+     *
+     * @return ResponseEntity containing "genres" and "platforms" count lists
+     */
+    @GetMapping("/api/facets")
+    public ResponseEntity<Map<String, List<FacetCount>>> getFacets() {
+        FacetRegistry.Facets facets = facetRegistry.snapshot();
+        boolean empty = facets.counts().values().stream().allMatch(List::isEmpty);
+        return ResponseEntity.ok()
+                .eTag(facets.countsEtag())
+                .cacheControl(empty ? EMPTY_CACHE_CONTROL : FACET_CACHE_CONTROL)
+                .body(facets.counts());
+    }
+
+    /**
+     * Handles typeahead requests from the search bar. Served from memory, never from the IGDB API.
+     *
+     * @param prefix the text typed so far
+     * @param limit  maximum number of suggestions (at most 20)
+     * @return ResponseEntity containing game suggestions, most reviewed first
+     */
+    @GetMapping("/api/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam String prefix,
+                                                    @RequestParam(defaultValue = "8") int limit) {
+        List<Suggestion> suggestions = suggestionService.suggest(prefix, Math.max(1, Math.min(limit, 20)));
+        return ResponseEntity.ok().cacheControl(SUGGEST_CACHE_CONTROL).body(suggestions);
+    }
+
+    /**
+     * Starts a response for a list of games with an ETag over their content and the given cache policy.
+     * Spring compares the ETag with If-None-Match and, on a match, sends 304 without writing the body.
+     * The ETag is weak: it vouches for the games, not the bytes, which differ with compression and format.
+     */
+    private static ResponseEntity.BodyBuilder conditional(List<VideoGame> games, CacheControl cacheControl) {
+        return ResponseEntity.ok()
+                .eTag("W/\"" + etag(games) + "\"")
+                .cacheControl(games.isEmpty() ? EMPTY_CACHE_CONTROL : cacheControl);
+    }
+
+    /**
+     * Hashes every field that reaches the JSON, which is much cheaper than serializing the games to hash that.
+     */
+    private static String etag(List<VideoGame> games) {
+        StringBuilder content = new StringBuilder();
+        for (VideoGame game : games) {
+            content.append(game.getGameId()).append('\u001f')
+                    .append(game.getGameName()).append('\u001f')
+                    .append(game.getDeveloper()).append('\u001f')
+                    .append(game.getPublisher()).append('\u001f')
+                    .append(game.getReleaseDate()).append('\u001f')
+                    .append(game.getGenre()).append('\u001f')
+                    .append(game.getPlatform()).append('\u001f')
+                    .append(game.getInvolvedCompanies()).append('\u001f')
+                    .append(game.getRating()).append('\u001f')
+                    .append(game.getReviewCount()).append('\u001f')
+                    .append(game.getMaturityRating()).append('\u001f')
+                    .append(game.getDescription()).append('\u001f')
+                    .append(game.getImageUrl()).append('\n');
+        }
+        return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
     }
 }
@@ -0,0 +1,221 @@
+package com.example.demo.model;
+
+import com.example.demo.util.FacetDictionary;
+import com.example.demo.util.ResultSetMapper;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, compact form of a {@link VideoGame}, for holding many games in memory (the search index, the game cache).
+ * <p>
+ * Genres, platforms and companies are kept as ids into dictionaries shared by every game, instead of each game
+ * carrying its own joined strings, and games with the same genres or platforms share one id array. Release dates
+ * are kept as epoch days and cover urls without their common prefix. Converting back with {@link #toVideoGame}
+ * gives the same VideoGame, so clients see the same JSON.
+ */
+public final class CompactGame {
+
+    private static final FacetDictionary GENRES = new FacetDictionary(true);
+    private static final FacetDictionary PLATFORMS = new FacetDictionary(true);
+    private static final FacetDictionary COMPANIES = new FacetDictionary(false);
+
+    // Ids of fields the game had no value for, e.g. outside its projection
+    private static final int NONE = -1;
+
+    // Release day of games whose release date is not an ISO date; any int is a valid epoch day
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    // Every IGDB cover url starts with this; only the rest is stored
+    private static final String COVER_URL_PREFIX = "//images.igdb.com/igdb/image/upload/t_thumb/";
+
+    private final long gameId;
+    private final String gameName;
+    private final int releaseDay; // Epoch day of an ISO release date, or NO_DAY
+    private final String releaseDate; // Any other release date text
+    private final int[] genres;
+    private final int[] platforms;
+    private final int[] companies;
+    private final int developer;
+    private final int publisher;
+    private final double rating;
+    private final int reviewCount;
+    private final String maturityRating;
+    private final String description;
+    private final String imageUrl;
+    private final boolean coverUrl;
+
+    private CompactGame(VideoGame game) {
+        this.gameId = game.getGameId() == null ? 0 : game.getGameId();
+        this.gameName = game.getGameName();
+        this.releaseDay = epochDay(game.getReleaseDate());
+        this.releaseDate = releaseDay == NO_DAY ? game.getReleaseDate() : null;
+        this.genres = encode(GENRES, game.getGenre());
+        this.platforms = encode(PLATFORMS, game.getPlatform());
+        this.companies = encode(COMPANIES, game.getInvolvedCompanies());
+        this.developer = game.getDeveloper() == null ? NONE : COMPANIES.id(game.getDeveloper());
+        this.publisher = game.getPublisher() == null ? NONE : COMPANIES.id(game.getPublisher());
+        this.rating = game.getRating();
+        this.reviewCount = game.getReviewCount();
+        this.maturityRating = "Unknown".equals(game.getMaturityRating()) ? "Unknown" : game.getMaturityRating(); // Mostly the placeholder
+        this.description = game.getDescription();
+        this.coverUrl = game.getImageUrl() != null && game.getImageUrl().startsWith(COVER_URL_PREFIX);
+        this.imageUrl = coverUrl ? game.getImageUrl().substring(COVER_URL_PREFIX.length()) : game.getImageUrl();
+    }
+
+    /**
+     * @param game the game to encode
+     * @return the compact form of the game
+     */
+    public static CompactGame of(VideoGame game) {
+        return new CompactGame(game);
+    }
+
+    /**
+     * @return a new VideoGame with every field of this game
+     */
+    public VideoGame toVideoGame() {
+        return toVideoGame(GameProjection.DETAIL);
+    }
+
+    /**
+     * @param projection the fields to fill in
+     * @return a new VideoGame with the projection's fields of this game
+     */
+    public VideoGame toVideoGame(GameProjection projection) {
+        VideoGame game = new VideoGame();
+        game.setGameId(gameId);
+        game.setGameName(gameName);
+        game.setReleaseDate(getReleaseDate());
+        game.setGenre(decode(GENRES, genres));
+        game.setPlatform(decode(PLATFORMS, platforms));
+        game.setRating(rating);
+        game.setReviewCount(reviewCount);
+        game.setImageUrl(coverUrl ? COVER_URL_PREFIX + imageUrl : imageUrl);
+        if (projection == GameProjection.DETAIL) {
+            game.setInvolvedCompanies(decode(COMPANIES, companies));
+            game.setDeveloper(developer == NONE ? null : COMPANIES.name(developer));
+            game.setPublisher(publisher == NONE ? null : COMPANIES.name(publisher));
+            game.setMaturityRating(maturityRating);
+            game.setDescription(description);
+        }
+        return game;
+    }
+
+    /**
+     * Compiles the filters of a query into a test on compact games. Names are looked up once, so testing a game
+     * compares ids instead of splitting strings. The search text is not checked.
+     *
+     * @param query the query whose filters to apply
+     * @return a predicate accepting the games that pass every filter
+     */
+    public static Predicate<CompactGame> matching(GameQuery query) {
+        int[] genres = GENRES.lookup(query.getGenres());
+        int[] platforms = PLATFORMS.lookup(query.getPlatforms());
+        boolean anyGenre = query.getGenres().isEmpty();
+        boolean anyPlatform = query.getPlatforms().isEmpty();
+        double minRating = query.getMinRating() == null ? Double.NEGATIVE_INFINITY : query.getMinRating();
+        double maxRating = query.getMaxRating() == null ? Double.POSITIVE_INFINITY : query.getMaxRating();
+        boolean anyYear = query.getMinYear() == null && query.getMaxYear() == null;
+        long firstDay = query.getMinYear() == null ? Long.MIN_VALUE : LocalDate.of(query.getMinYear(), 1, 1).toEpochDay();
+        long lastDay = query.getMaxYear() == null ? Long.MAX_VALUE : LocalDate.of(query.getMaxYear(), 12, 31).toEpochDay();
+
+        return game -> (anyGenre || (game.genres != null && FacetDictionary.containsAny(game.genres, genres)))
+                && (anyPlatform || (game.platforms != null && FacetDictionary.containsAny(game.platforms, platforms)))
+                && game.rating >= minRating && game.rating <= maxRating
+                && (anyYear || (game.releaseDay != NO_DAY && game.releaseDay >= firstDay && game.releaseDay <= lastDay));
+    }
+
+    public long getGameId() {
+        return gameId;
+    }
+
+    public String getGameName() {
+        return gameName;
+    }
+
+    /**
+     * @return the release date as VideoGame holds it
+     */
+    public String getReleaseDate() {
+        return releaseDay == NO_DAY ? releaseDate : LocalDate.ofEpochDay(releaseDay).toString();
+    }
+
+    /**
+     * @return the epoch day of the release date, or Integer.MIN_VALUE if it is not an ISO date
+     */
+    public int getReleaseDay() {
+        return releaseDay;
+    }
+
+    /**
+     * @return genre names, empty if unknown
+     */
+    public List<String> getGenres() {
+        return names(GENRES, genres);
+    }
+
+    /**
+     * @return platform names, empty if unknown
+     */
+    public List<String> getPlatforms() {
+        return names(PLATFORMS, platforms);
+    }
+
+    public String getInvolvedCompanies() {
+        return decode(COMPANIES, companies);
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public String getMaturityRating() {
+        return maturityRating;
+    }
+
+    public String getDeveloper() {
+        return developer == NONE ? null : COMPANIES.name(developer);
+    }
+
+    public String getPublisher() {
+        return publisher == NONE ? null : COMPANIES.name(publisher);
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    private static int epochDay(String date) {
+        if (date == null || date.length() != 10) {
+            return NO_DAY;
+        }
+        try {
+            LocalDate parsed = LocalDate.parse(date);
+            return parsed.toString().equals(date) ? (int) parsed.toEpochDay() : NO_DAY; // Only dates that print back the same
+        } catch (DateTimeParseException e) {
+            return NO_DAY;
+        }
+    }
+
+    private static int[] encode(FacetDictionary dictionary, String joined) {
+        return joined == null ? null : dictionary.encode(ResultSetMapper.splitJoined(joined));
+    }
+
+    private static String decode(FacetDictionary dictionary, int[] encoded) {
+        return encoded == null ? null : dictionary.join(encoded);
+    }
+
+    private static List<String> names(FacetDictionary dictionary, int[] encoded) {
+        if (encoded == null) {
+            return List.of();
+        }
+        String[] names = new String[encoded.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = dictionary.name(encoded[i]);
+        }
+        return List.of(names);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.model;
+
+public class FacetCount {
+    private String name;
+    private int count;
+
+    public FacetCount() {
+    }
+
+    public FacetCount(String name, int count) {
+        this.name = name;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
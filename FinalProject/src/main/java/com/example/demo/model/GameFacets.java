@@ -0,0 +1,57 @@
+package com.example.demo.model;
+
+import java.util.List;
+
+/**
+ * How many games match a query, and how many of them fall in each genre, platform and maturity rating.
+ * Each facet's counts leave out that facet's own filter, so picking another genre shows how many games it would add.
+ */
+public class GameFacets {
+    private int total;
+    private List<FacetCount> genres;
+    private List<FacetCount> platforms;
+    private List<FacetCount> maturityRatings;
+
+    public GameFacets() {
+    }
+
+    public GameFacets(int total, List<FacetCount> genres, List<FacetCount> platforms, List<FacetCount> maturityRatings) {
+        this.total = total;
+        this.genres = genres;
+        this.platforms = platforms;
+        this.maturityRatings = maturityRatings;
+    }
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<FacetCount> getGenres() {
+        return genres;
+    }
+
+    public void setGenres(List<FacetCount> genres) {
+        this.genres = genres;
+    }
+
+    public List<FacetCount> getPlatforms() {
+        return platforms;
+    }
+
+    public void setPlatforms(List<FacetCount> platforms) {
+        this.platforms = platforms;
+    }
+
+    public List<FacetCount> getMaturityRatings() {
+        return maturityRatings;
+    }
+
+    public void setMaturityRatings(List<FacetCount> maturityRatings) {
+        this.maturityRatings = maturityRatings;
+    }
+}
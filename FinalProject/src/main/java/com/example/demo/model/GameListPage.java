@@ -0,0 +1,104 @@
+package com.example.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact wire form of a page of games, sent by /api/games?format=compact for the result grid.
+ * <p>
+ * Items carry only what the grid shows. Genre and platform names are listed once per page and referred to by
+ * index, since a page repeats the same few names many times. Placeholders ("Unknown", "No Image", a 0 rating)
+ * are left out rather than sent, and the client shows its own.
+ * <p>
+ * Behind gzip this saves little (see WireFormatBenchmark): about 6% for 50 games, and nothing for 10. It pays
+ * off for clients that don't accept compressed responses.
+ *
+ * @param genres    the genre names the items refer to
+ * @param platforms the platform names the items refer to
+ * @param games     the games, in list order
+ */
+public record GameListPage(List<String> genres, List<String> platforms, List<Item> games) {
+
+    private static final String UNKNOWN = "Unknown";
+    private static final String NO_IMAGE = "No Image";
+    private static final String SEPARATOR = ", ";
+    private static final int[] NONE = new int[0];
+
+    /**
+     * One game of the page. Absent fields are left out of the JSON.
+     *
+     * @param id        the game's ID
+     * @param name      the game's name
+     * @param genres    indexes into the page's genres
+     * @param platforms indexes into the page's platforms
+     * @param rating    the rating, if the game has one
+     * @param reviews   the review count, if above 0
+     * @param released  the release date, if known
+     * @param cover     the cover image url, if the game has one
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record Item(long id, String name, int[] genres, int[] platforms, Double rating, Integer reviews,
+                       String released, String cover) {
+    }
+
+    /**
+     * Encodes a page of games.
+     *
+     * @param games the games, as a list query returns them
+     * @return the compact page
+     */
+    public static GameListPage of(List<VideoGame> games) {
+        Map<String, Integer> genres = new LinkedHashMap<>();
+        Map<String, Integer> platforms = new LinkedHashMap<>();
+        List<Item> items = new ArrayList<>(games.size());
+
+        for (VideoGame game : games) {
+            items.add(new Item(
+                    game.getGameId(),
+                    game.getGameName(),
+                    indexes(game.getGenre(), genres),
+                    indexes(game.getPlatform(), platforms),
+                    game.getRating() > 0 ? game.getRating() : null,
+                    game.getReviewCount() > 0 ? game.getReviewCount() : null,
+                    known(game.getReleaseDate(), UNKNOWN),
+                    known(game.getImageUrl(), NO_IMAGE)));
+        }
+        return new GameListPage(List.copyOf(genres.keySet()), List.copyOf(platforms.keySet()), items);
+    }
+
+    /**
+     * Splits names joined by ResultSetMapper and looks each up in the page's dictionary, adding new ones.
+     * Splits by hand: String.split compiles a pattern per call for a two-character separator.
+     */
+    private static int[] indexes(String joined, Map<String, Integer> dictionary) {
+        if (joined == null || joined.isEmpty() || joined.equals(UNKNOWN)) {
+            return NONE;
+        }
+        int count = 1;
+        for (int at = joined.indexOf(SEPARATOR); at >= 0; at = joined.indexOf(SEPARATOR, at + SEPARATOR.length())) {
+            count++;
+        }
+        int[] indexes = new int[count];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = i == count - 1 ? joined.length() : joined.indexOf(SEPARATOR, start);
+            String name = joined.substring(start, end);
+            Integer index = dictionary.get(name);
+            if (index == null) {
+                index = dictionary.size();
+                dictionary.put(name, index);
+            }
+            indexes[i] = index;
+            start = end + SEPARATOR.length();
+        }
+        return indexes;
+    }
+
+    private static String known(String value, String placeholder) {
+        return value == null || value.isEmpty() || value.equals(placeholder) ? null : value;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.model;
+
+/**
+ * Which parts of a game a view needs. Queries fetch, and mappers fill in, only the fields of the projection;
+ * the others stay null on the VideoGame and are left out of its JSON.
+ */
+public enum GameProjection {
+
+    /**
+     * What a result grid shows: name, cover, rating, genres, platforms, plus the release date and review count
+     * that lists are sorted and ranked by. No description and no company graph.
+     */
+    LIST("fields id, name, genres.name, platforms.name, rating, cover.url, first_release_date, total_rating_count; ",
+            "gameId, gameName, releaseDate, genre, platform, rating, reviewCount, imageUrl"),
+
+    /**
+     * Everything, for the game page.
+     */
+    DETAIL("fields id, name, genres.name, platforms.name, rating, summary, cover.url, first_release_date, " +
+            "involved_companies.company.name, involved_companies.publisher, total_rating_count; ",
+            "*");
+
+    private final String igdbFields;
+    private final String columns;
+
+    GameProjection(String igdbFields, String columns) {
+        this.igdbFields = igdbFields;
+        this.columns = columns;
+    }
+
+    /**
+     * @return the APICALYPSE fields clause, including its trailing "; "
+     */
+    public String igdbFields() {
+        return igdbFields;
+    }
+
+    /**
+     * @return the VideoGame table columns to select
+     */
+    public String columns() {
+        return columns;
+    }
+}
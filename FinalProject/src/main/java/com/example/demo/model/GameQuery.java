@@ -0,0 +1,377 @@
+package com.example.demo.model;
+
+import com.example.demo.util.PageCursor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.LongStream;
+
+/**
+ * A request for a list of games: optional search text, filters, sort and page.
+ * <p>
+ * Queries are immutable and normalized when built: values are trimmed, filter values are kept as sorted sets,
+ * and unknown sort fields fall back to name. Two requests that mean the same thing therefore build equal
+ * queries, compile to the same IGDB or SQL query, and share one {@link #toCacheKey() cache key}.
+ * Several genres (or platforms) match games having any of them; different filters must all match.
+ */
+public final class GameQuery {
+
+    /**
+     * Sort fields understood by the search page; anything else sorts by name.
+     */
+    public static final Set<String> SORT_FIELDS = Set.of("name", "rating", "release_dates", "involved_companies");
+
+    // Sort fields with a sort key on VideoGame, which can be paged with keyset cursors
+    private static final Set<String> KEYSET_SORTS = Set.of("name", "rating", "release_dates");
+
+    // IGDB rejects larger pages
+    private static final int MAX_LIMIT = 500;
+
+    private final String search;
+    private final SortedSet<String> genres;
+    private final SortedSet<String> platforms;
+    private final Double minRating;
+    private final Double maxRating;
+    private final Integer minYear;
+    private final Integer maxYear;
+    private final String sortBy;
+    private final boolean descending;
+    private final int limit;
+    private final int offset;
+    private final PageCursor after;
+    private final GameProjection projection;
+
+    // Built once: queries key the list cache and the access counts, so equals and hashCode run on every request
+    private final String cacheKey;
+
+    private GameQuery(Builder builder) {
+        this.search = builder.search;
+        this.genres = Collections.unmodifiableSortedSet(new TreeSet<>(builder.genres));
+        this.platforms = Collections.unmodifiableSortedSet(new TreeSet<>(builder.platforms));
+        this.minRating = builder.minRating;
+        this.maxRating = builder.maxRating;
+        this.minYear = builder.minYear;
+        this.maxYear = builder.maxYear;
+        this.sortBy = builder.sortBy;
+        this.descending = builder.descending;
+        this.limit = builder.limit;
+        this.projection = builder.projection;
+
+        // An offset cursor is just an offset; a keyset cursor only means something for the sort it came from
+        PageCursor cursor = builder.after;
+        if (cursor != null && !cursor.isKeyset()) {
+            this.offset = cursor.getOffset();
+            this.after = null;
+        } else {
+            this.offset = cursor != null ? 0 : builder.offset;
+            this.after = cursor != null && isKeysetPaged() ? cursor : null;
+        }
+        this.cacheKey = buildCacheKey();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the search text, or null when browsing
+     */
+    public String getSearch() {
+        return search;
+    }
+
+    public boolean isSearch() {
+        return search != null;
+    }
+
+    /**
+     * @return genre names, in sorted order; games with any of them match
+     */
+    public SortedSet<String> getGenres() {
+        return genres;
+    }
+
+    /**
+     * @return platform names, in sorted order; games on any of them match
+     */
+    public SortedSet<String> getPlatforms() {
+        return platforms;
+    }
+
+    /**
+     * @return the lowest rating to include, or null
+     */
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    /**
+     * @return the highest rating to include, or null
+     */
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    /**
+     * @return the first release year to include, or null
+     */
+    public Integer getMinYear() {
+        return minYear;
+    }
+
+    /**
+     * @return the last release year to include, or null
+     */
+    public Integer getMaxYear() {
+        return maxYear;
+    }
+
+    /**
+     * @return one of {@link #SORT_FIELDS}
+     */
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    /**
+     * @return "asc" or "desc"
+     */
+    public String getSortOrder() {
+        return descending ? "desc" : "asc";
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the keyset cursor the page starts after, or null
+     */
+    public PageCursor getAfter() {
+        return after;
+    }
+
+    /**
+     * @return the fields to fetch for each game, {@link GameProjection#LIST} unless set otherwise
+     */
+    public GameProjection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Whether pages of this query are found by sort key rather than by offset. Searches are ranked by relevance
+     * and the company sort has no single key, so those are paged by offset.
+     *
+     * @return true if the query can be paged with keyset cursors
+     */
+    public boolean isKeysetPaged() {
+        return !isSearch() && KEYSET_SORTS.contains(sortBy);
+    }
+
+    /**
+     * The sort key of a game under this query's sort, as stored in keyset cursors.
+     *
+     * @param game a game returned for this query
+     * @return the value the game is sorted by
+     */
+    public String sortKey(VideoGame game) {
+        return switch (sortBy) {
+            case "rating" -> Double.toString(game.getRating());
+            case "release_dates" -> Objects.toString(game.getReleaseDate(), "");
+            default -> Objects.toString(game.getGameName(), "");
+        };
+    }
+
+    /**
+     * Builds the cursor for the page after the given one.
+     *
+     * @param page the games just returned for this query
+     * @return the next cursor, or null if this was the last page
+     */
+    public PageCursor nextCursor(List<VideoGame> page) {
+        if (page.isEmpty() || page.size() < limit) {
+            return null;
+        }
+        if (!isKeysetPaged()) {
+            return PageCursor.offset(sortBy, getSortOrder(), offset + page.size());
+        }
+
+        VideoGame last = page.get(page.size() - 1);
+        String key = sortKey(last);
+        LongStream seen = page.stream().filter(game -> key.equals(sortKey(game))).mapToLong(VideoGame::getGameId);
+        if (after != null && key.equals(after.getKey())) {
+            seen = LongStream.concat(LongStream.of(after.getSeenIds()), seen); // Games sharing one key span pages
+        }
+        return PageCursor.keyset(sortBy, getSortOrder(), key, last.getGameId(), seen.toArray());
+    }
+
+    /**
+     * A canonical string for this query; equal queries have equal keys.
+     *
+     * @return the cache key
+     */
+    public String toCacheKey() {
+        return cacheKey;
+    }
+
+    private String buildCacheKey() {
+        StringBuilder key = new StringBuilder();
+        if (isSearch()) {
+            key.append("search=").append(search).append('\n');
+        }
+        genres.forEach(genre -> key.append("genre=").append(genre).append('\n'));
+        platforms.forEach(platform -> key.append("platform=").append(platform).append('\n'));
+        if (minRating != null) {
+            key.append("minRating=").append(minRating).append('\n');
+        }
+        if (maxRating != null) {
+            key.append("maxRating=").append(maxRating).append('\n');
+        }
+        if (minYear != null) {
+            key.append("minYear=").append(minYear).append('\n');
+        }
+        if (maxYear != null) {
+            key.append("maxYear=").append(maxYear).append('\n');
+        }
+        key.append("sort=").append(sortBy).append(' ').append(getSortOrder()).append('\n')
+                .append("limit=").append(limit).append('\n')
+                .append("offset=").append(offset).append('\n')
+                .append("projection=").append(projection);
+        if (after != null) {
+            key.append('\n').append("after=").append(after.encode());
+        }
+        return key.toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GameQuery query && cacheKey.equals(query.cacheKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return cacheKey.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toCacheKey().replace('\n', ' ');
+    }
+
+    /**
+     * Collects the parts of a {@link GameQuery}. Blank values are ignored, so request parameters can be passed as they come.
+     */
+    public static final class Builder {
+
+        private String search;
+        private final Set<String> genres = new TreeSet<>();
+        private final Set<String> platforms = new TreeSet<>();
+        private Double minRating;
+        private Double maxRating;
+        private Integer minYear;
+        private Integer maxYear;
+        private String sortBy = "name";
+        private boolean descending;
+        private int limit = 10;
+        private int offset;
+        private PageCursor after;
+        private GameProjection projection = GameProjection.LIST;
+
+        private Builder() {
+        }
+
+        public Builder search(String search) {
+            this.search = search == null || search.isBlank() ? null : search.trim().replaceAll("\\s+", " ");
+            return this;
+        }
+
+        public Builder genres(Collection<String> genres) {
+            addAll(this.genres, genres);
+            return this;
+        }
+
+        public Builder platforms(Collection<String> platforms) {
+            addAll(this.platforms, platforms);
+            return this;
+        }
+
+        public Builder minRating(Double minRating) {
+            this.minRating = minRating;
+            return this;
+        }
+
+        public Builder maxRating(Double maxRating) {
+            this.maxRating = maxRating;
+            return this;
+        }
+
+        public Builder minYear(Integer minYear) {
+            this.minYear = minYear;
+            return this;
+        }
+
+        public Builder maxYear(Integer maxYear) {
+            this.maxYear = maxYear;
+            return this;
+        }
+
+        /**
+         * @param sortBy    one of {@link #SORT_FIELDS}, anything else sorts by name
+         * @param sortOrder "desc" for descending, anything else is ascending
+         * @return this builder
+         */
+        public Builder sort(String sortBy, String sortOrder) {
+            this.sortBy = sortBy != null && SORT_FIELDS.contains(sortBy.trim()) ? sortBy.trim() : "name";
+            this.descending = "desc".equalsIgnoreCase(sortOrder == null ? null : sortOrder.trim());
+            return this;
+        }
+
+        /**
+         * @param limit  number of games per page, between 1 and 500
+         * @param offset number of games to skip; ignored when a cursor is set
+         * @return this builder
+         */
+        public Builder page(int limit, int offset) {
+            this.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+            this.offset = Math.max(0, offset);
+            return this;
+        }
+
+        /**
+         * @param after cursor returned with the previous page, or null for the first page
+         * @return this builder
+         */
+        public Builder after(PageCursor after) {
+            this.after = after;
+            return this;
+        }
+
+        public Builder projection(GameProjection projection) {
+            this.projection = projection;
+            return this;
+        }
+
+        public GameQuery build() {
+            return new GameQuery(this);
+        }
+
+        private static void addAll(Set<String> target, Collection<String> values) {
+            if (values != null) {
+                values.stream().filter(Objects::nonNull).map(String::trim).filter(value -> !value.isEmpty()).forEach(target::add);
+            }
+        }
+    }
+}
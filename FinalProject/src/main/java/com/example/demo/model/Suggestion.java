@@ -0,0 +1,41 @@
+package com.example.demo.model;
+
+public class Suggestion {
+    private Long gameId;
+    private String gameName;
+    private int reviewCount;
+
+    public Suggestion() {
+    }
+
+    public Suggestion(Long gameId, String gameName, int reviewCount) {
+        this.gameId = gameId;
+        this.gameName = gameName;
+        this.reviewCount = reviewCount;
+    }
+
+    // Getters and Setters
+    public Long getGameId() {
+        return gameId;
+    }
+
+    public void setGameId(Long gameId) {
+        this.gameId = gameId;
+    }
+
+    public String getGameName() {
+        return gameName;
+    }
+
+    public void setGameName(String gameName) {
+        this.gameName = gameName;
+    }
+
+    public int getReviewCount() {
+        return reviewCount;
+    }
+
+    public void setReviewCount(int reviewCount) {
+        this.reviewCount = reviewCount;
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Fields outside a game's projection stay null and are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class VideoGame {
 
     private Long gameId;
@@ -16,6 +20,30 @@ public class VideoGame {
     private String description;
     private String imageUrl;
 
+    public VideoGame() {
+    }
+
+    /**
+     * Copy constructor, used to hand out cached games without letting callers mutate the cached copy.
+     *
+     * @param other the game to copy
+     */
+    public VideoGame(VideoGame other) {
+        this.gameId = other.gameId;
+        this.gameName = other.gameName;
+        this.developer = other.developer;
+        this.publisher = other.publisher;
+        this.releaseDate = other.releaseDate;
+        this.genre = other.genre;
+        this.platform = other.platform;
+        this.involvedCompanies = other.involvedCompanies;
+        this.rating = other.rating;
+        this.reviewCount = other.reviewCount;
+        this.maturityRating = other.maturityRating;
+        this.description = other.description;
+        this.imageUrl = other.imageUrl;
+    }
+
     // Getters and Setters
     public Long getGameId() {
         return gameId;
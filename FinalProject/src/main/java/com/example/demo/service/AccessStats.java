@@ -0,0 +1,251 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.GameQuery;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts which games and game lists are requested from IGDB-backed caches, so CacheWarmer can prefetch the
+ * hottest ones. Counts are kept in memory and flushed to the HotEntry table, where every flush first decays the
+ * stored scores: recent traffic outweighs old traffic, and entries nobody asks for anymore fade out.
+ */
+@Service
+public class AccessStats {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessStats.class);
+
+    static final String GAME = "game";
+    static final String QUERY = "query";
+
+    // Entries whose score decays below this are deleted
+    private static final double MIN_SCORE = 0.5;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private DataSource writeDataSource;
+
+    @Value("${gamefinder.warmer.decay:0.95}")
+    private double decay;
+
+    private final Map<Long, LongAdder> games = new ConcurrentHashMap<>();
+    private final Map<GameQuery, LongAdder> queries = new ConcurrentHashMap<>();
+
+    /**
+     * Counts a request for a game page.
+     *
+     * @param gameId the ID of the game
+     */
+    public void recordGame(Long gameId) {
+        if (gameId != null) {
+            games.computeIfAbsent(gameId, id -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Counts a request for a game list. Cursor pages are not counted, since their cursor is the user's own.
+     *
+     * @param query the list request
+     */
+    public void recordQuery(GameQuery query) {
+        if (query.getAfter() == null) {
+            queries.computeIfAbsent(query, q -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Decays the stored scores and adds the counts recorded since the last flush, in one transaction. If it fails,
+     * the counts are merged back into memory for the next flush.
+     */
+    @PreDestroy
+    public synchronized void flush() {
+        String decayScores = "UPDATE HotEntry SET score = score * ?";
+        String upsert = "INSERT INTO HotEntry (kind, entryKey, payload, score, lastSeen) VALUES (?, ?, ?, ?, ?) " +
+                "ON CONFLICT(kind, entryKey) DO UPDATE SET payload = excluded.payload, " +
+                "score = score + excluded.score, lastSeen = excluded.lastSeen";
+        String prune = "DELETE FROM HotEntry WHERE score < ?";
+        Map<Long, Long> gameCounts = drain(games);
+        Map<GameQuery, Long> queryCounts = drain(queries);
+
+        try (Connection conn = writeDataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement decayStmt = conn.prepareStatement(decayScores);
+                 PreparedStatement upsertStmt = conn.prepareStatement(upsert);
+                 PreparedStatement pruneStmt = conn.prepareStatement(prune)) {
+                long now = System.currentTimeMillis();
+
+                decayStmt.setDouble(1, decay);
+                decayStmt.executeUpdate();
+
+                for (Map.Entry<Long, Long> game : gameCounts.entrySet()) {
+                    addBatch(upsertStmt, GAME, String.valueOf(game.getKey()), null, game.getValue(), now);
+                }
+                for (Map.Entry<GameQuery, Long> query : queryCounts.entrySet()) {
+                    addBatch(upsertStmt, QUERY, query.getKey().toCacheKey(), toJson(query.getKey()), query.getValue(), now);
+                }
+                upsertStmt.executeBatch();
+
+                pruneStmt.setDouble(1, MIN_SCORE);
+                pruneStmt.executeUpdate();
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            log.warn("Could not flush access statistics", e);
+            restore(games, gameCounts);
+            restore(queries, queryCounts);
+        }
+    }
+
+    /**
+     * @param limit the most games to return
+     * @return the IDs of the hottest games as of the last flush, hottest first
+     */
+    public List<Long> hottestGames(int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (String[] entry : hottest(GAME, limit)) {
+            ids.add(Long.valueOf(entry[0]));
+        }
+        return ids;
+    }
+
+    /**
+     * @param limit the most queries to return
+     * @return the hottest game lists as of the last flush, hottest first
+     */
+    public List<GameQuery> hottestQueries(int limit) {
+        List<GameQuery> hot = new ArrayList<>();
+        for (String[] entry : hottest(QUERY, limit)) {
+            try {
+                hot.add(fromJson(entry[1]));
+            } catch (Exception e) {
+                log.warn("Skipping unreadable hot query {}", entry[0], e); // Stored by an older version; decays away
+            }
+        }
+        return hot;
+    }
+
+    /**
+     * Writes a list request as JSON, keeping what the cache key is made of.
+     *
+     * @param query the list request
+     * @return the request as a JSON object string
+     */
+    static String toJson(GameQuery query) {
+        return new JSONObject()
+                .putOpt("search", query.getSearch())
+                .put("genres", new JSONArray(query.getGenres()))
+                .put("platforms", new JSONArray(query.getPlatforms()))
+                .putOpt("minRating", query.getMinRating())
+                .putOpt("maxRating", query.getMaxRating())
+                .putOpt("minYear", query.getMinYear())
+                .putOpt("maxYear", query.getMaxYear())
+                .put("sortBy", query.getSortBy())
+                .put("sortOrder", query.getSortOrder())
+                .put("limit", query.getLimit())
+                .put("offset", query.getOffset())
+                .put("projection", query.getProjection().name())
+                .toString();
+    }
+
+    /**
+     * Reads a list request written by {@link #toJson}.
+     *
+     * @param json the request as a JSON object string
+     * @return the list request
+     */
+    static GameQuery fromJson(String json) {
+        JSONObject object = new JSONObject(json);
+        return GameQuery.builder()
+                .search(object.optString("search", null))
+                .genres(strings(object.getJSONArray("genres")))
+                .platforms(strings(object.getJSONArray("platforms")))
+                .minRating(object.has("minRating") ? object.getDouble("minRating") : null)
+                .maxRating(object.has("maxRating") ? object.getDouble("maxRating") : null)
+                .minYear(object.has("minYear") ? object.getInt("minYear") : null)
+                .maxYear(object.has("maxYear") ? object.getInt("maxYear") : null)
+                .sort(object.getString("sortBy"), object.getString("sortOrder"))
+                .page(object.getInt("limit"), object.getInt("offset"))
+                .projection(GameProjection.valueOf(object.getString("projection")))
+                .build();
+    }
+
+    private static void addBatch(PreparedStatement stmt, String kind, String key, String payload, long count, long now) throws Exception {
+        stmt.setString(1, kind);
+        stmt.setString(2, key);
+        stmt.setString(3, payload);
+        stmt.setDouble(4, count);
+        stmt.setLong(5, now);
+        stmt.addBatch();
+    }
+
+    /**
+     * Takes the counts out of a map, so requests recorded meanwhile go into the next flush.
+     */
+    private static <K> Map<K, Long> drain(Map<K, LongAdder> counts) {
+        Map<K, Long> drained = new HashMap<>();
+        for (K key : counts.keySet()) {
+            LongAdder count = counts.remove(key);
+            if (count != null) {
+                drained.put(key, count.sum());
+            }
+        }
+        return drained;
+    }
+
+    private static <K> void restore(Map<K, LongAdder> counts, Map<K, Long> drained) {
+        drained.forEach((key, count) -> counts.computeIfAbsent(key, k -> new LongAdder()).add(count));
+    }
+
+    private List<String[]> hottest(String kind, int limit) {
+        String sql = "SELECT entryKey, payload FROM HotEntry WHERE kind = ? ORDER BY score DESC LIMIT ?";
+        List<String[]> entries = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, kind);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new String[]{rs.getString("entryKey"), rs.getString("payload")});
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not read hot {} entries", kind, e);
+        }
+        return entries;
+    }
+
+    private static List<String> strings(JSONArray array) {
+        List<String> values = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            values.add(array.getString(i));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the game and game list caches warm with what users ask for most, as counted by {@link AccessStats}.
+ * Right after startup it prefetches the hottest entries of the previous run, so the first minutes of traffic
+ * don't all go to IGDB; after that it flushes the counts and prefetches on a schedule, ahead of cache expiry.
+ * Prefetches go to IGDB at low priority, so they only use rate budget users' requests leave over.
+ * <p>
+ * How long the caches took to warm after startup, and their hit rate over the first minutes, are logged
+ * and kept for {@link #getStartupToWarm()} and {@link #getEarlyHitRate()}.
+ */
+@Service
+public class CacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Autowired
+    private AccessStats accessStats;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${gamefinder.warmer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gamefinder.warmer.games:500}")
+    private int hotGames;
+
+    @Value("${gamefinder.warmer.queries:50}")
+    private int hotQueries;
+
+    @Value("${gamefinder.warmer.report-window:5m}")
+    private Duration reportWindow;
+
+    private volatile Duration startupToWarm;
+    private volatile Double earlyHitRate;
+
+    // Set while a prefetch round runs, so scheduled rounds never overlap
+    private final AtomicBoolean warming = new AtomicBoolean();
+
+    /**
+     * Prefetches the hottest entries in the background once the application is up, if enabled, and schedules
+     * the hit rate report.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        CacheStats gamesAtStart = gameDataService.getGameCacheStats();
+        CacheStats listsAtStart = gameDataService.getListCacheStats();
+        taskScheduler.schedule(() -> reportEarlyHitRate(gamesAtStart, listsAtStart), Instant.now().plus(reportWindow));
+
+        warm().thenAccept(warmed -> {
+            startupToWarm = Duration.ofMillis(System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+            log.info("Caches warm {} ms after startup: prefetched {} games and {} game lists",
+                    startupToWarm.toMillis(), warmed.games(), warmed.lists());
+        });
+    }
+
+    /**
+     * Flushes the access counts, then starts prefetching hot entries that are missing or about to expire. Does not
+     * wait for the prefetch, so the scheduling thread stays free; a round still running skips the next one.
+     */
+    @Scheduled(fixedDelayString = "${gamefinder.warmer.interval:PT5M}",
+            initialDelayString = "${gamefinder.warmer.interval:PT5M}")
+    public void refresh() {
+        accessStats.flush();
+        if (enabled) {
+            warm();
+        }
+    }
+
+    /**
+     * @return time from JVM start until the startup prefetch finished, or null until it has
+     */
+    public Duration getStartupToWarm() {
+        return startupToWarm;
+    }
+
+    /**
+     * @return the share of game and list cache lookups that hit over the report window after startup, or null
+     *         until the window has passed, or if there were no lookups in it
+     */
+    public Double getEarlyHitRate() {
+        return earlyHitRate;
+    }
+
+    private CompletableFuture<Warmed> warm() {
+        if (!warming.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(new Warmed(0, 0));
+        }
+        CompletableFuture<Warmed> warmed;
+        try {
+            CompletableFuture<Integer> games = gameDataService.prefetchGames(accessStats.hottestGames(hotGames));
+            List<CompletableFuture<Boolean>> lists = accessStats.hottestQueries(hotQueries).stream()
+                    .map(gameDataService::prefetchList)
+                    .toList();
+
+            warmed = games.thenCombine(CompletableFuture.allOf(lists.toArray(CompletableFuture[]::new)),
+                    (fetched, done) -> new Warmed(fetched, (int) lists.stream().filter(CompletableFuture::join).count()));
+        } catch (RuntimeException e) {
+            warming.set(false);
+            throw e;
+        }
+        return warmed.whenComplete((result, error) -> {
+            warming.set(false);
+            if (error != null) {
+                log.warn("Cache prefetch failed", error);
+            }
+        });
+    }
+
+    private void reportEarlyHitRate(CacheStats gamesAtStart, CacheStats listsAtStart) {
+        CacheStats games = gameDataService.getGameCacheStats().minus(gamesAtStart);
+        CacheStats lists = gameDataService.getListCacheStats().minus(listsAtStart);
+        long lookups = games.requestCount() + lists.requestCount();
+
+        if (lookups == 0) {
+            log.info("No cache lookups in the first {} s, so no early hit rate", reportWindow.toSeconds());
+            return; // Left null rather than reported as a perfect rate
+        }
+        earlyHitRate = (double) (games.hitCount() + lists.hitCount()) / lookups;
+        log.info("Cache hit rate over the first {} s: {}% of {} lookups (games {}%, lists {}%)",
+                reportWindow.toSeconds(), percent(earlyHitRate), lookups, percent(games.hitRate()), percent(lists.hitRate()));
+    }
+
+    private static String percent(double rate) {
+        return String.format("%.1f", rate * 100);
+    }
+
+    private record Warmed(int games, int lists) {
+    }
+}
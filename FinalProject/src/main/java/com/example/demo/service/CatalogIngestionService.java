@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.example.demo.model.VideoGame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Copies the IGDB catalog into the local VideoGame table, one large page per transaction.
+ */
+@Service
+public class CatalogIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIngestionService.class);
+
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private FacetRegistry facetRegistry;
+
+    @Autowired
+    private GameSearchIndex searchIndex;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private GamePageCache gamePageCache;
+
+    @Value("${gamefinder.catalog.ingest-on-startup:false}")
+    private boolean ingestOnStartup;
+
+    @Value("${gamefinder.catalog.ingest-page-size:500}")
+    private int pageSize;
+
+    @Value("${gamefinder.catalog.ingest-max-games:50000}")
+    private int maxGames;
+
+    /**
+     * Runs a full ingestion in the background once the application is up, if enabled.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void ingestOnStartup() {
+        if (ingestOnStartup) {
+            ingest();
+        }
+    }
+
+    /**
+     * Pages through IGDB and upserts every page into the local mirror.
+     * Stops at the end of the catalog, at the configured maximum, or at the first failed page.
+     *
+     * @return the number of games written to the local mirror
+     */
+    public int ingest() {
+        int ingested = 0;
+        long lastId = 0;
+
+        while (ingested < maxGames) {
+            List<VideoGame> page;
+            try {
+                page = gameDataService.getCatalogPage(Math.min(pageSize, maxGames - ingested), lastId);
+            } catch (Exception e) {
+                log.warn("Catalog ingestion stopped after {} games: an IGDB page failed", ingested, e);
+                break; // Upserts are idempotent, so the next run can simply start over
+            }
+
+            if (page.isEmpty() || !catalogService.upsertGames(page)) {
+                break;
+            }
+            suggestionService.addGames(page);
+            ingested += page.size();
+            lastId = page.get(page.size() - 1).getGameId();
+        }
+
+        if (ingested > 0) {
+            // All are built from the mirror we just filled
+            facetRegistry.refresh();
+            searchIndex.rebuild();
+            gamePageCache.evictAll();
+        }
+        return ingested;
+    }
+}
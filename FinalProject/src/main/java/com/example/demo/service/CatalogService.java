@@ -0,0 +1,417 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FacetCount;
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.GameQuery;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.PageCursor;
+import com.example.demo.util.ResultSetMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes the local mirror of the IGDB catalog stored in the VideoGame table.
+ */
+@Service
+public class CatalogService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogService.class);
+
+    private static final String SELECT_GAMES = "SELECT * FROM VideoGame";
+
+    // Keeps IN lists well under SQLite's bound parameter limit
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    // Maps the sortBy values used by the search page to VideoGame columns
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "gameName",
+            "rating", "rating",
+            "release_dates", "releaseDate",
+            "involved_companies", "involvedCompanies"
+    );
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private DataSource writeDataSource;
+
+    @Value("${gamefinder.catalog.serve-local:false}")
+    private boolean serveLocal;
+
+    /**
+     * Whether catalog reads should be answered from the local mirror instead of IGDB.
+     *
+     * @return true if the local mirror is the serving source
+     */
+    public boolean isServingLocal() {
+        return serveLocal;
+    }
+
+    /**
+     * Inserts or updates a batch of games in a single transaction.
+     *
+     * @param games the games to store
+     * @return true if the batch was committed
+     */
+    public boolean upsertGames(List<VideoGame> games) {
+        String upsertGame = "INSERT INTO VideoGame (gameId, gameName, developer, publisher, releaseDate, genre, platform, " +
+                "involvedCompanies, rating, reviewCount, maturityRating, description, imageUrl, updatedAt) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT(gameId) DO UPDATE SET gameName = excluded.gameName, developer = excluded.developer, " +
+                "publisher = excluded.publisher, releaseDate = excluded.releaseDate, genre = excluded.genre, " +
+                "platform = excluded.platform, involvedCompanies = excluded.involvedCompanies, rating = excluded.rating, " +
+                "reviewCount = excluded.reviewCount, maturityRating = excluded.maturityRating, " +
+                "description = excluded.description, imageUrl = excluded.imageUrl, updatedAt = excluded.updatedAt";
+        String deleteGenres = "DELETE FROM VideoGameGenre WHERE gameId = ?";
+        String deletePlatforms = "DELETE FROM VideoGamePlatform WHERE gameId = ?";
+        String insertGenre = "INSERT OR IGNORE INTO VideoGameGenre (name, gameId) VALUES (?, ?)";
+        String insertPlatform = "INSERT OR IGNORE INTO VideoGamePlatform (name, gameId) VALUES (?, ?)";
+
+        if (games.isEmpty()) {
+            return true;
+        }
+
+        try (Connection conn = writeDataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement gameStmt = conn.prepareStatement(upsertGame);
+                 PreparedStatement deleteGenreStmt = conn.prepareStatement(deleteGenres);
+                 PreparedStatement deletePlatformStmt = conn.prepareStatement(deletePlatforms);
+                 PreparedStatement genreStmt = conn.prepareStatement(insertGenre);
+                 PreparedStatement platformStmt = conn.prepareStatement(insertPlatform)) {
+                long now = System.currentTimeMillis();
+
+                for (VideoGame game : games) {
+                    gameStmt.setLong(1, game.getGameId());
+                    gameStmt.setString(2, game.getGameName());
+                    gameStmt.setString(3, game.getDeveloper());
+                    gameStmt.setString(4, game.getPublisher());
+                    gameStmt.setString(5, game.getReleaseDate());
+                    gameStmt.setString(6, game.getGenre());
+                    gameStmt.setString(7, game.getPlatform());
+                    gameStmt.setString(8, game.getInvolvedCompanies());
+                    gameStmt.setDouble(9, game.getRating());
+                    gameStmt.setInt(10, game.getReviewCount());
+                    gameStmt.setString(11, game.getMaturityRating());
+                    gameStmt.setString(12, game.getDescription());
+                    gameStmt.setString(13, game.getImageUrl());
+                    gameStmt.setLong(14, now);
+                    gameStmt.addBatch();
+
+                    deleteGenreStmt.setLong(1, game.getGameId());
+                    deleteGenreStmt.addBatch();
+                    deletePlatformStmt.setLong(1, game.getGameId());
+                    deletePlatformStmt.addBatch();
+
+                    for (String genre : ResultSetMapper.splitJoined(game.getGenre())) {
+                        genreStmt.setString(1, genre);
+                        genreStmt.setLong(2, game.getGameId());
+                        genreStmt.addBatch();
+                    }
+                    for (String platform : ResultSetMapper.splitJoined(game.getPlatform())) {
+                        platformStmt.setString(1, platform);
+                        platformStmt.setLong(2, game.getGameId());
+                        platformStmt.addBatch();
+                    }
+                }
+
+                gameStmt.executeBatch();
+                deleteGenreStmt.executeBatch();
+                deletePlatformStmt.executeBatch();
+                genreStmt.executeBatch();
+                platformStmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (Exception e) {
+            log.warn("Could not upsert {} games into the local mirror", games.size(), e);
+        }
+        return false;
+    }
+
+    /**
+     * Looks up a single game in the local mirror.
+     *
+     * @param gameId the ID of the game
+     * @return the game, or null if it has not been mirrored
+     */
+    public VideoGame getGameById(Long gameId) {
+        String sql = SELECT_GAMES + " WHERE gameId = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, gameId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return ResultSetMapper.mapResultSetToVideoGame(rs);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not read game {} from the local mirror", gameId, e);
+        }
+        return null;
+    }
+
+    /**
+     * Looks up several games in the local mirror at once.
+     *
+     * @param gameIds the IDs of the games
+     * @return the mirrored games by ID; IDs that have not been mirrored are left out
+     */
+    public Map<Long, VideoGame> getGamesByIds(Collection<Long> gameIds) {
+        Map<Long, VideoGame> games = new HashMap<>();
+        List<Long> ids = new ArrayList<>(gameIds);
+
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+            String sql = SELECT_GAMES + " WHERE gameId IN (" + placeholders(batch.size()) + ")";
+
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < batch.size(); i++) {
+                    stmt.setLong(i + 1, batch.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        VideoGame game = ResultSetMapper.mapResultSetToVideoGame(rs);
+                        games.put(game.getGameId(), game);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Could not read {} games from the local mirror", batch.size(), e);
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Pages through the local mirror in name order.
+     *
+     * @param limit  number of games to fetch
+     * @param offset offset for pagination
+     * @return a list of VideoGame objects
+     */
+    public List<VideoGame> getGames(int limit, int offset) {
+        return findGames(GameQuery.builder().page(limit, offset).build());
+    }
+
+    /**
+     * Searches the local mirror by game name.
+     *
+     * @param query  the search term
+     * @param limit  number of games to fetch
+     * @param offset offset for pagination
+     * @return a list of VideoGame objects
+     */
+    public List<VideoGame> searchGames(String query, int limit, int offset) {
+        return findGames(GameQuery.builder().search(query).page(limit, offset).build());
+    }
+
+    /**
+     * Runs a game query against the local mirror, mirroring GameDataService.findGames. A search matches game names,
+     * and only the columns of the query's projection are read.
+     * With a keyset cursor, the cursor's (sort key, gameId) is compared as a row value, so SQLite seeks straight
+     * to it in the sort index however deep the page is.
+     *
+     * @param query the filters, sort and page to fetch
+     * @return a list of VideoGame objects
+     */
+    public List<VideoGame> findGames(GameQuery query) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(query.getProjection().columns()).append(" FROM VideoGame g WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+
+        if (query.isSearch()) {
+            sql.append(" AND g.gameName LIKE ? ESCAPE '\\'");
+            params.add("%" + query.getSearch().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        if (!query.getGenres().isEmpty()) {
+            sql.append(" AND g.gameId IN (SELECT gameId FROM VideoGameGenre WHERE name IN (").append(placeholders(query.getGenres().size())).append("))");
+            params.addAll(query.getGenres());
+        }
+        if (!query.getPlatforms().isEmpty()) {
+            sql.append(" AND g.gameId IN (SELECT gameId FROM VideoGamePlatform WHERE name IN (").append(placeholders(query.getPlatforms().size())).append("))");
+            params.addAll(query.getPlatforms());
+        }
+        if (query.getMinRating() != null) {
+            sql.append(" AND g.rating >= ?");
+            params.add(query.getMinRating());
+        }
+        if (query.getMaxRating() != null) {
+            sql.append(" AND g.rating <= ?");
+            params.add(query.getMaxRating());
+        }
+        if (query.getMinYear() != null || query.getMaxYear() != null) {
+            sql.append(" AND g.releaseDate BETWEEN ? AND ?"); // ISO dates compare as text; "Unknown" falls outside
+            params.add(query.getMinYear() == null ? "0000-01-01" : String.format("%04d-01-01", query.getMinYear()));
+            params.add(query.getMaxYear() == null ? "9999-12-31" : String.format("%04d-12-31", query.getMaxYear()));
+        }
+
+        String column = SORT_COLUMNS.getOrDefault(query.getSortBy(), "gameName");
+        String direction = query.isDescending() ? "DESC" : "ASC";
+        PageCursor after = query.getAfter();
+        if (after != null) {
+            try {
+                params.add("rating".equals(column) ? Double.parseDouble(after.getKey()) : after.getKey());
+            } catch (NumberFormatException e) {
+                return List.of(); // Tampered cursor
+            }
+            params.add(after.getLastId());
+            sql.append(" AND (g.").append(column).append(", g.gameId) ").append(query.isDescending() ? "<" : ">").append(" (?, ?)");
+        }
+        sql.append(" ORDER BY g.").append(column).append(" ").append(direction).append(", g.gameId ").append(direction);
+        sql.append(" LIMIT ? OFFSET ?");
+        params.add(query.getLimit());
+        params.add(query.getOffset());
+
+        return queryGames(sql.toString(), query.getProjection(), params.toArray());
+    }
+
+    /**
+     * Lists every genre that appears in the local mirror.
+     *
+     * @return genre names in alphabetical order
+     */
+    public List<String> getGenres() {
+        return queryNames("SELECT DISTINCT name FROM VideoGameGenre ORDER BY name");
+    }
+
+    /**
+     * Lists every platform that appears in the local mirror.
+     *
+     * @return platform names in alphabetical order
+     */
+    public List<String> getPlatforms() {
+        return queryNames("SELECT DISTINCT name FROM VideoGamePlatform ORDER BY name");
+    }
+
+    /**
+     * Counts mirrored games per genre.
+     *
+     * @return one entry per genre, most common first
+     */
+    public List<FacetCount> countGamesByGenre() {
+        return queryFacetCounts("SELECT name, COUNT(*) AS count FROM VideoGameGenre GROUP BY name ORDER BY count DESC, name");
+    }
+
+    /**
+     * Counts mirrored games per platform.
+     *
+     * @return one entry per platform, most common first
+     */
+    public List<FacetCount> countGamesByPlatform() {
+        return queryFacetCounts("SELECT name, COUNT(*) AS count FROM VideoGamePlatform GROUP BY name ORDER BY count DESC, name");
+    }
+
+    /**
+     * Streams every game in the local mirror, in ID order, without holding the whole result set in memory.
+     *
+     * @param action called once per game
+     * @return true if every game was read, false if the read failed part way
+     */
+    public boolean forEachGame(Consumer<VideoGame> action) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_GAMES + " ORDER BY gameId");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                action.accept(ResultSetMapper.mapResultSetToVideoGame(rs));
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not scan the local mirror", e);
+        }
+        return false;
+    }
+
+    /**
+     * Counts the games in the local mirror.
+     *
+     * @return the number of mirrored games
+     */
+    public int countGames() {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) AS count FROM VideoGame");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                return rs.getInt("count");
+            }
+        } catch (Exception e) {
+            log.warn("Could not count the games in the local mirror", e);
+        }
+        return 0;
+    }
+
+    private List<VideoGame> queryGames(String sql, GameProjection projection, Object... params) {
+        List<VideoGame> games = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    games.add(ResultSetMapper.mapResultSetToVideoGame(rs, projection));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Local mirror query failed: {}", sql, e);
+        }
+        return games;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private List<String> queryNames(String sql) {
+        List<String> names = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                names.add(rs.getString("name"));
+            }
+        } catch (Exception e) {
+            log.warn("Local mirror query failed: {}", sql, e);
+        }
+        return names;
+    }
+
+    private List<FacetCount> queryFacetCounts(String sql) {
+        List<FacetCount> counts = new ArrayList<>();
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                counts.add(new FacetCount(rs.getString("name"), rs.getInt("count")));
+            }
+        } catch (Exception e) {
+            log.warn("Local mirror query failed: {}", sql, e);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FacetCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the genre and platform lists used by the search page filters. They are loaded once at startup
+ * and on a schedule, then served from memory, so the facet endpoints never call IGDB on the request path.
+ * <p>
+ * Requests get whatever snapshot is current, empty lists included. A load that leaves a list empty is retried
+ * in the background with exponential backoff, and only one load runs at a time.
+ */
+@Service
+public class FacetRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetRegistry.class);
+
+    @Autowired
+    private GameDataService gameDataService;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${gamefinder.facets.load-on-startup:true}")
+    private boolean loadOnStartup;
+
+    @Value("${gamefinder.facets.retry-min:PT10S}")
+    private Duration retryMin;
+
+    @Value("${gamefinder.facets.retry-max:PT10M}")
+    private Duration retryMax;
+
+    // Replaced as a whole on refresh, so readers always see one consistent set of lists and ETags
+    private volatile Facets facets = new Facets(List.of(), List.of(), Map.of());
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile boolean retryPending;
+    private int failedLoads; // Only touched while holding loading
+
+    /**
+     * Loads the facets in the background once the application is up, if enabled.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (loadOnStartup) {
+            refresh();
+        }
+    }
+
+    /**
+     * Reloads the facets, unless a load is already running. A list that comes back empty (e.g. IGDB is down)
+     * keeps its previous value; if that leaves it empty, another load is scheduled after a backoff.
+     */
+    @Scheduled(fixedDelayString = "${gamefinder.facets.refresh-interval:PT6H}",
+            initialDelayString = "${gamefinder.facets.refresh-interval:PT6H}")
+    public void refresh() {
+        if (!loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            load();
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /**
+     * The current genre and platform lists, facet counts and their ETags. Take one snapshot per request and
+     * answer from it, so the body and its ETag always match.
+     *
+     * @return the current facets; lists are empty until the first successful load
+     */
+    public Facets snapshot() {
+        return facets;
+    }
+
+    private void load() {
+        Facets current = facets;
+
+        List<String> genres = gameDataService.getGenres();
+        List<String> platforms = gameDataService.getPlatforms();
+
+        Map<String, List<FacetCount>> counts = new LinkedHashMap<>();
+        counts.put("genres", List.copyOf(catalogService.countGamesByGenre()));
+        counts.put("platforms", List.copyOf(catalogService.countGamesByPlatform()));
+
+        facets = new Facets(
+                genres.isEmpty() ? current.genres() : List.copyOf(genres),
+                platforms.isEmpty() ? current.platforms() : List.copyOf(platforms),
+                counts);
+
+        if (!facets.genres().isEmpty() && !facets.platforms().isEmpty()) {
+            failedLoads = 0;
+            return;
+        }
+        if (retryPending) {
+            return; // A scheduled refresh ran between retries; keep the one retry already waiting
+        }
+        Duration backoff = retryMin.multipliedBy(1L << Math.min(failedLoads++, 16));
+        if (backoff.compareTo(retryMax) > 0) {
+            backoff = retryMax;
+        }
+        log.warn("Genre or platform list is still empty, loading again in {} s", backoff.toSeconds());
+        retryPending = true;
+        taskScheduler.schedule(() -> {
+            retryPending = false;
+            refresh();
+        }, Instant.now().plus(backoff));
+    }
+
+    /**
+     * One consistent set of facet lists and their strong ETags.
+     *
+     * @param genres        every genre name, in IGDB (or local mirror) order
+     * @param platforms     every platform name, in IGDB (or local mirror) order
+     * @param counts        number of locally mirrored games per genre and per platform, under "genres" and
+     *                      "platforms", most common facet values first
+     * @param genresEtag    a strong ETag for the genre list
+     * @param platformsEtag a strong ETag for the platform list
+     * @param countsEtag    a strong ETag for the facet counts
+     */
+    public record Facets(List<String> genres, List<String> platforms, Map<String, List<FacetCount>> counts,
+                         String genresEtag, String platformsEtag, String countsEtag) {
+
+        Facets(List<String> genres, List<String> platforms, Map<String, List<FacetCount>> counts) {
+            this(genres, platforms, Map.copyOf(counts), etag(genres), etag(platforms), countsEtag(counts));
+        }
+
+        private static String etag(List<String> values) {
+            return DigestUtils.md5DigestAsHex(String.join("\n", values).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static String countsEtag(Map<String, List<FacetCount>> counts) {
+            StringBuilder content = new StringBuilder();
+            counts.forEach((facet, values) -> {
+                content.append(facet).append('\n');
+                values.forEach(value -> content.append(value.getName()).append('=').append(value.getCount()).append('\n'));
+            });
+            return DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
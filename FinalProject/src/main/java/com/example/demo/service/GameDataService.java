@@ -1,53 +1,122 @@
 package com.example.demo.service;
 
+import com.example.demo.model.CompactGame;
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.GameQuery;
 import com.example.demo.model.VideoGame;
-import com.example.demo.util.ResultSetMapper;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.example.demo.util.PageCursor;
+import com.example.demo.util.RequestGovernor.Priority;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.HashMap;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service
 public class GameDataService {
 
-    private static final String CLIENT_ID = "hehe";
-    private static final String ACCESS_TOKEN = "haha";
-    private static final String API_URL = "https://api.igdb.com/v4/games";
-    private static final String GENRES_URL = "https://api.igdb.com/v4/genres";
-    private static final String PLATFORMS_URL = "https://api.igdb.com/v4/platforms";
+    private static final Logger log = LoggerFactory.getLogger(GameDataService.class);
+
+    // IGDB returns at most this many records per query
+    private static final int IGDB_MAX_LIMIT = 500;
+
+    // Ratings are rounded to two decimals, so a rounded rating stands for IGDB ratings within this distance of it
+    private static final BigDecimal HALF_RATING_STEP = new BigDecimal("0.005");
+
+    @Autowired
+    private IgdbClient igdbClient;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private GameSearchIndex searchIndex;
+
+    @Autowired
+    private AccessStats accessStats;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gamefinder.cache.games.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${gamefinder.cache.games.refresh-after:30m}")
+    private Duration cacheRefreshAfter;
+
+    @Value("${gamefinder.cache.games.expire-after:6h}")
+    private Duration cacheExpireAfter;
+
+    @Value("${gamefinder.cache.lists.max-size:1000}")
+    private long listCacheMaxSize;
+
+    @Value("${gamefinder.cache.lists.expire-after:15m}")
+    private Duration listCacheExpireAfter;
+
+    // Games are cached in compact form; every read decodes a fresh VideoGame the caller is free to modify
+    private LoadingCache<Long, CompactGame> gameCache;
+
+    // Game lists fetched from IGDB, shared as returned by IgdbClient
+    private Cache<GameQuery, List<VideoGame>> listCache;
+
+    @PostConstruct
+    void initGameCache() {
+        gameCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .refreshAfterWrite(cacheRefreshAfter) // Serve the stale entry while it reloads in the background
+                .expireAfterWrite(cacheExpireAfter)
+                .recordStats()
+                .build(this::loadGameFromApi);
+        listCache = Caffeine.newBuilder()
+                .maximumSize(listCacheMaxSize)
+                .expireAfterWrite(listCacheExpireAfter)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, gameCache, "games");
+        CaffeineCacheMetrics.monitor(meterRegistry, listCache, "game_lists");
+    }
 
     /**
-     * Fetches games from the IGDB API with pagination.
+     * Fetches games from the IGDB API (or the local mirror when serving locally) with pagination.
      *
      * @param limit  number of games to fetch
      * @param offset offset for pagination
      * @return a list of VideoGame objects
      */
     public List<VideoGame> getGames(int limit, int offset) {
-        try {
-            String query = String.format(
-                    "fields id, name, genres.name, platforms.name, rating, summary, cover.url, first_release_date, " +
-                            "involved_companies.company.name, involved_companies.publisher, total_rating_count; " +
-                            "limit %d; offset %d;",
-                    limit, offset
-            );
-            return fetchGamesFromApi(query);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return List.of(); // Return empty list on error
+        return findGames(GameQuery.builder().page(limit, offset).build());
     }
 
     /**
-     * Fetches games from the IGDB API with a search query.
+     * Searches games with the in-memory search index once it has been built, otherwise with the IGDB API
+     * (or the local mirror when serving locally).
      *
      * @param query  the search term
      * @param limit  number of games to fetch
@@ -55,189 +124,535 @@ public class GameDataService {
      * @return a list of VideoGame objects
      */
     public List<VideoGame> searchGames(String query, int limit, int offset) {
-        try {
-            String searchQuery = String.format(
-                    "fields id, name, genres.name, platforms.name, rating, summary, cover.url, first_release_date, " +
-                            "involved_companies.company.name, involved_companies.publisher, total_rating_count; " +
-                            "search \"%s\"; limit %d; offset %d;",
-                    query, limit, offset
-            );
-
-            return fetchGamesFromApi(searchQuery);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-
-        return List.of(); // Return empty list on error
+        return findGames(GameQuery.builder().search(query).page(limit, offset).build());
     }
 
     /**
-     * Fetches games from the IGDB API with filters and sorting.
+     * Fetches games from the IGDB API (or the local mirror when serving locally) with filters and sorting.
      *
      * @param limit          number of games to fetch
      * @param offset         offset for pagination
      * @param filterGenre    genre filter
      * @param filterPlatform platform filter
-     * @param filterRating   rating filter
+     * @param filterRating   minimum rating filter
      * @param sortBy         sorting field
      * @param sortOrder      sorting order (asc/desc)
-     * @return a list of VideoGame objects
+     * @return a list of VideoGame objects, empty if the rating filter is not a number
      */
     public List<VideoGame> getGamesWithFilters(int limit, int offset, String filterGenre, String filterPlatform, String filterRating, String sortBy, String sortOrder) {
         try {
-            StringBuilder queryBuilder = new StringBuilder(
-                    "fields id, name, genres.name, platforms.name, rating, summary, cover.url, first_release_date, " +
-                            "involved_companies.company.name, involved_companies.publisher, total_rating_count; " +
-                            "limit " + limit + "; offset " + offset + ";"
-            );
-
-            if (filterGenre != null && !filterGenre.isEmpty()) {
-                queryBuilder.append(" where genres.name = \"").append(filterGenre).append("\";");
-            }
-            if (filterPlatform != null && !filterPlatform.isEmpty()) {
-                queryBuilder.append(" where platforms.name = \"").append(filterPlatform).append("\";");
-            }
-            if (filterRating != null && !filterRating.isEmpty()) {
-                queryBuilder.append(" where rating >= ").append(filterRating).append(";");
-            }
-            if (sortBy != null && !sortBy.isEmpty()) {
-                queryBuilder.append(" sort ").append(sortBy).append(" ").append(sortOrder).append(";");
-            }
+            return findGames(GameQuery.builder()
+                    .genres(filterGenre == null ? List.of() : List.of(filterGenre))
+                    .platforms(filterPlatform == null ? List.of() : List.of(filterPlatform))
+                    .minRating(filterRating == null || filterRating.isBlank() ? null : Double.valueOf(filterRating.trim()))
+                    .sort(sortBy, sortOrder)
+                    .page(limit, offset)
+                    .build());
+        } catch (NumberFormatException e) {
+            return List.of(); // IGDB rejects a non-numeric rating too
+        }
+    }
 
-            return fetchGamesFromApi(queryBuilder.toString());
-        } catch (Exception e) {
-            e.printStackTrace();
+    /**
+     * Runs a game query. When serving locally, the in-memory search index answers searches once it has been built,
+     * and lists too unless local browsing is disabled; anything else goes to the local mirror. When not serving
+     * locally, the query is compiled into one IGDB request.
+     *
+     * @param query the search, filters, sort and page to fetch
+     * @return a list of VideoGame objects
+     */
+    public List<VideoGame> findGames(GameQuery query) {
+        if (query.isSearch() && searchIndex.isReady()) {
+            return searchIndex.search(query);
+        }
+        if (!query.isSearch() && searchIndex.isBrowseReady()) {
+            return searchIndex.browse(query);
+        }
+        if (catalogService.isServingLocal()) {
+            return catalogService.findGames(query);
         }
 
-        return List.of(); // Return empty list on error
+        accessStats.recordQuery(query);
+        List<VideoGame> cached = listCache.getIfPresent(query);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return cacheList(query, fetchGamesFromApi("list", buildQuery(query), query.getProjection()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return List.of(); // Tampered cursor
+        }
     }
 
     /**
-     * Fetches a game by its ID from the IGDB API.
+     * Async counterpart of {@link #findGames}. Completes immediately when answered from memory or the local mirror.
+     *
+     * @param query the search, filters, sort and page to fetch
+     * @return a future completed with the games, or an empty list on error
+     */
+    public CompletableFuture<List<VideoGame>> findGamesAsync(GameQuery query) {
+        if (query.isSearch() && searchIndex.isReady()) {
+            return CompletableFuture.completedFuture(searchIndex.search(query));
+        }
+        if (!query.isSearch() && searchIndex.isBrowseReady()) {
+            return CompletableFuture.completedFuture(searchIndex.browse(query));
+        }
+        if (catalogService.isServingLocal()) {
+            return CompletableFuture.completedFuture(catalogService.findGames(query));
+        }
+
+        accessStats.recordQuery(query);
+        List<VideoGame> cached = listCache.getIfPresent(query);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        try {
+            return fetchGamesFromApiAsync("list", buildQuery(query), query.getProjection(), Priority.NORMAL)
+                    .thenApply(games -> cacheList(query, games));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return CompletableFuture.completedFuture(List.of()); // Tampered cursor
+        }
+    }
+
+    /**
+     * Compiles a game query into a single IGDB APICALYPSE query. Every filter goes into one where clause joined
+     * with {@code &}, since IGDB only honors one where clause, and strings are quoted and escaped. Several genres
+     * or platforms become {@code genres.name = ("a","b")}, which matches games having any of them.
+     * Searches are ranked by IGDB, which does not allow a sort next to a search.
+     * <p>
+     * Sorting by rating or release date leaves out games without one, which have no position in that sort.
+     * IGDB's sort keys are also finer than the ones VideoGame keeps (ratings are rounded, dates are days), so a
+     * keyset page starts at the whole bucket holding the cursor's key and skips the games already returned from it.
+     * <p>
+     * The query is normalized, so equal queries compile to the same string and share IGDB requests.
+     *
+     * @param query the search, filters, sort and page to fetch
+     * @return the IGDB API query string
+     * @throws NumberFormatException  if the cursor's rating key is not a number
+     * @throws DateTimeParseException if the cursor's release date key is not a date
+     */
+    public static String buildQuery(GameQuery query) {
+        List<String> conditions = new ArrayList<>();
+
+        if (!query.getGenres().isEmpty()) {
+            conditions.add("genres.name = " + quoteAll(query.getGenres()));
+        }
+        if (!query.getPlatforms().isEmpty()) {
+            conditions.add("platforms.name = " + quoteAll(query.getPlatforms()));
+        }
+        if (query.getMinRating() != null) {
+            conditions.add("rating >= " + BigDecimal.valueOf(query.getMinRating()).stripTrailingZeros().toPlainString());
+        }
+        if (query.getMaxRating() != null) {
+            conditions.add("rating <= " + BigDecimal.valueOf(query.getMaxRating()).stripTrailingZeros().toPlainString());
+        }
+        if (query.getMinYear() != null) {
+            conditions.add("first_release_date >= " + startOfDay(LocalDate.of(query.getMinYear(), 1, 1)));
+        }
+        if (query.getMaxYear() != null) {
+            conditions.add("first_release_date < " + startOfDay(LocalDate.of(query.getMaxYear() + 1, 1, 1)));
+        }
+
+        String field = switch (query.getSortBy()) {
+            case "rating" -> "rating";
+            case "release_dates" -> "first_release_date";
+            default -> query.getSortBy();
+        };
+        if (!query.isSearch() && (field.equals("rating") || field.equals("first_release_date"))) {
+            conditions.add(field + " != null");
+        }
+
+        PageCursor after = query.getAfter();
+        if (after != null) {
+            boolean descending = query.isDescending();
+            conditions.add(switch (field) {
+                case "rating" -> descending
+                        ? "rating < " + new BigDecimal(after.getKey()).add(HALF_RATING_STEP).toPlainString()
+                        : "rating >= " + new BigDecimal(after.getKey()).subtract(HALF_RATING_STEP).toPlainString();
+                case "first_release_date" -> descending
+                        ? "first_release_date < " + startOfDay(LocalDate.parse(after.getKey()).plusDays(1))
+                        : "first_release_date >= " + startOfDay(LocalDate.parse(after.getKey()));
+                default -> "name " + (descending ? "<= " : ">= ") + quote(after.getKey());
+            });
+            if (after.getSeenIds().length > 0) {
+                conditions.add("id != (" + LongStream.of(after.getSeenIds()).mapToObj(Long::toString).collect(Collectors.joining(",")) + ")");
+            }
+        }
+
+        StringBuilder queryBuilder = new StringBuilder(query.getProjection().igdbFields());
+        if (query.isSearch()) {
+            queryBuilder.append("search ").append(quote(query.getSearch())).append("; ");
+        }
+        if (!conditions.isEmpty()) {
+            queryBuilder.append("where ").append(String.join(" & ", conditions)).append("; ");
+        }
+        if (!query.isSearch()) {
+            queryBuilder.append("sort ").append(field).append(" ").append(query.getSortOrder()).append("; ");
+        }
+        queryBuilder.append("limit ").append(query.getLimit()).append(";");
+        if (query.getOffset() > 0) {
+            queryBuilder.append(" offset ").append(query.getOffset()).append(";");
+        }
+        return queryBuilder.toString();
+    }
+
+    /**
+     * Fetches a game by its ID, from the local mirror or the game cache when possible and from the IGDB API otherwise.
      *
      * @param id the ID of the game
-     * @return a VideoGame object
+     * @return a VideoGame object the caller is free to modify
      */
     public VideoGame getGameById(Long id) {
+        if (catalogService.isServingLocal()) {
+            VideoGame game = catalogService.getGameById(id);
+            if (game != null) {
+                return game;
+            }
+        }
+
+        accessStats.recordGame(id);
         try {
-            String query = String.format(
-                "fields id, name, genres.name, platforms.name, rating, summary, cover.url, first_release_date, " +
-                "involved_companies.company.name, involved_companies.publisher, total_rating_count; " +
-                "where id = %d;", id
-            );
-            List<VideoGame> games = fetchGamesFromApi(query);
-            return games.isEmpty() ? null : games.get(0);
+            CompactGame game = gameCache.get(id);
+            return game == null ? null : game.toVideoGame();
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not load game {}", id, e);
         }
         return null; // Return null on error
     }
 
     /**
-     * Fetches genres from the IGDB API.
+     * Async counterpart of {@link #getGames}. Returns immediately; the IGDB round trip completes the future.
+     *
+     * @param limit  number of games to fetch
+     * @param offset offset for pagination
+     * @return a future completed with the games, or an empty list on error
+     */
+    public CompletableFuture<List<VideoGame>> getGamesAsync(int limit, int offset) {
+        return findGamesAsync(GameQuery.builder().page(limit, offset).build());
+    }
+
+    /**
+     * Async counterpart of {@link #searchGames}.
+     *
+     * @param query  the search term
+     * @param limit  number of games to fetch
+     * @param offset offset for pagination
+     * @return a future completed with the games, or an empty list on error
+     */
+    public CompletableFuture<List<VideoGame>> searchGamesAsync(String query, int limit, int offset) {
+        return findGamesAsync(GameQuery.builder().search(query).page(limit, offset).build());
+    }
+
+    /**
+     * Async counterpart of {@link #getGameById}. Completes immediately on a local mirror or cache hit.
+     *
+     * @param id the ID of the game
+     * @return a future completed with a VideoGame the caller is free to modify, or null if not found or on error
+     */
+    public CompletableFuture<VideoGame> getGameByIdAsync(Long id) {
+        if (catalogService.isServingLocal()) {
+            VideoGame game = catalogService.getGameById(id);
+            if (game != null) {
+                return CompletableFuture.completedFuture(game);
+            }
+        }
+
+        accessStats.recordGame(id);
+        CompactGame cached = gameCache.getIfPresent(id);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached.toVideoGame());
+        }
+
+        return fetchGamesFromApiAsync("game", gameByIdQuery(id), GameProjection.DETAIL, Priority.HIGH)
+                .thenApply(games -> games.isEmpty() ? null : new VideoGame(games.get(0)));
+    }
+
+    /**
+     * Fetches several games at once, see {@link #getGamesByIdsAsync}.
+     *
+     * @param ids the IDs of the games
+     * @return the games found, in the order of their IDs
+     */
+    public List<VideoGame> getGamesByIds(Collection<Long> ids) {
+        return getGamesByIdsAsync(ids).join();
+    }
+
+    /**
+     * Fetches several games at once. Games are taken from the local mirror and the game cache first; the rest are
+     * fetched from IGDB in batches of up to 500 IDs, sent in parallel, and added to the game cache.
+     *
+     * @param ids the IDs of the games
+     * @return a future completed with the games the caller is free to modify, in the order of their IDs. Repeated
+     *         IDs appear once, and IDs IGDB does not know, or that failed to load, are left out.
+     */
+    public CompletableFuture<List<VideoGame>> getGamesByIdsAsync(Collection<Long> ids) {
+        List<Long> order = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, VideoGame> found = new ConcurrentHashMap<>();
+
+        if (catalogService.isServingLocal()) {
+            found.putAll(catalogService.getGamesByIds(order));
+        }
+        List<Long> missing = order.stream().filter(id -> !found.containsKey(id)).toList();
+        gameCache.getAllPresent(missing).forEach((id, game) -> found.put(id, game.toVideoGame()));
+        missing = missing.stream().filter(id -> !found.containsKey(id)).toList();
+
+        return fetchGamesByIdsFromApi("games_by_ids", missing, Priority.NORMAL).thenApply(games -> {
+            games.forEach(game -> found.put(game.getGameId(), new VideoGame(game)));
+            return order.stream().map(found::get).filter(Objects::nonNull).toList();
+        });
+    }
+
+    /**
+     * Fetches games into the game cache ahead of demand, at low priority so users' requests go first. Games
+     * cached more recently than the refresh interval, or served from the local mirror, are skipped.
+     *
+     * @param ids the IDs of the games
+     * @return a future completed with the number of games fetched
+     */
+    public CompletableFuture<Integer> prefetchGames(Collection<Long> ids) {
+        List<Long> stale = ids.stream().distinct().filter(id -> isStale(gameCache, id, cacheRefreshAfter)).toList();
+        if (catalogService.isServingLocal()) {
+            Set<Long> mirrored = catalogService.getGamesByIds(stale).keySet();
+            stale = stale.stream().filter(id -> !mirrored.contains(id)).toList();
+        }
+        return fetchGamesByIdsFromApi("prefetch_games", stale, Priority.LOW).thenApply(List::size);
+    }
+
+    /**
+     * Fetches a game list into the list cache ahead of demand, at low priority. Skipped when the list is answered
+     * from memory or the local mirror anyway, or was cached less than half its lifetime ago.
+     *
+     * @param query the list request
+     * @return a future completed with true if the list was fetched
+     */
+    public CompletableFuture<Boolean> prefetchList(GameQuery query) {
+        if (isAnsweredLocally(query) || !isStale(listCache, query, listCacheExpireAfter.dividedBy(2))) {
+            return CompletableFuture.completedFuture(false);
+        }
+        try {
+            return fetchGamesFromApiAsync("prefetch_list", buildQuery(query), query.getProjection(), Priority.LOW)
+                    .thenApply(games -> !cacheList(query, games).isEmpty());
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    /**
+     * Returns hit, miss and eviction counters for the game cache.
+     *
+     * @return a snapshot of the game cache statistics
+     */
+    public CacheStats getGameCacheStats() {
+        return gameCache.stats();
+    }
+
+    /**
+     * Returns hit, miss and eviction counters for the cache of game lists fetched from IGDB.
+     *
+     * @return a snapshot of the list cache statistics
+     */
+    public CacheStats getListCacheStats() {
+        return listCache.stats();
+    }
+
+    /**
+     * Cache loader for a single game. Throws on API failure so a background refresh keeps the stale entry.
+     *
+     * @param id the ID of the game
+     * @return the game, or null if IGDB does not know it
+     * @throws Exception if the API call fails
+     */
+    private CompactGame loadGameFromApi(Long id) throws Exception {
+        List<VideoGame> games = timed("game", () -> igdbClient.fetchGames(gameByIdQuery(id), GameProjection.DETAIL, Priority.HIGH)); // Someone is on the game page
+        return games.isEmpty() ? null : CompactGame.of(games.get(0));
+    }
+
+    /**
+     * Fetches one page of the full IGDB catalog in ID order, bypassing the local mirror.
+     * Used by catalog ingestion, where a stable order keeps pages from overlapping. Pages start after an ID
+     * rather than at an offset, so the last page costs IGDB as little as the first.
+     *
+     * @param limit   number of games to fetch
+     * @param afterId ID of the last game of the previous page, 0 for the first page
+     * @return a list of VideoGame objects
+     * @throws Exception if the API call fails, so ingestion can stop instead of skipping a page
+     */
+    public List<VideoGame> getCatalogPage(int limit, long afterId) throws Exception {
+        String query = GameProjection.DETAIL.igdbFields() + "where id > " + afterId + "; sort id asc; limit " + limit + ";";
+        return timed("catalog_page", () -> igdbClient.fetchGames(query, GameProjection.DETAIL, Priority.LOW)); // Yields to users' requests
+    }
+
+    /**
+     * Fetches genres from the IGDB API (or the local mirror when serving locally).
      *
      * @return a list of genres
      */
     public List<String> getGenres() {
+        if (catalogService.isServingLocal()) {
+            return catalogService.getGenres();
+        }
+
         try {
-            return fetchFromApi(GENRES_URL, "fields name;");
+            return timed("genres", () -> igdbClient.fetchNames(IgdbClient.GENRES, "fields name; sort name asc; limit 500;")); // IGDB returns only 10 without a limit
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not fetch genres from IGDB", e);
         }
 
         return List.of(); // Return empty list on error
     }
 
     /**
-     * Fetches platforms from the IGDB API.
+     * Fetches platforms from the IGDB API (or the local mirror when serving locally).
      *
      * @return a list of platforms
      */
     public List<String> getPlatforms() {
+        if (catalogService.isServingLocal()) {
+            return catalogService.getPlatforms();
+        }
+
         try {
-            return fetchFromApi(PLATFORMS_URL, "fields name;");
+            return timed("platforms", () -> igdbClient.fetchNames(IgdbClient.PLATFORMS, "fields name; sort name asc; limit 500;"));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not fetch platforms from IGDB", e);
         }
 
         return List.of(); // Return empty list on error
     }
 
     /**
-     * Fetches data from the IGDB API based on the provided URL and query.
+     * Fetches games from the IGDB API based on the provided query string. Games fetched with the detail
+     * projection are added to the game cache; list projections lack fields the game page needs.
      *
-     * @param apiUrl the IGDB API URL
-     * @param query  the query string
-     * @return a list of strings
+     * @param call       what the games are fetched for, to tag the call's timer with
+     * @param query      the formatted IGDB API query string
+     * @param projection the projection the query selects
+     * @return a list of VideoGame objects
      */
-    private List<String> fetchFromApi(String apiUrl, String query) {
+    private List<VideoGame> fetchGamesFromApi(String call, String query, GameProjection projection) {
         try {
-            URL url = new URL(apiUrl);
-
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Client-ID", CLIENT_ID);
-            conn.setRequestProperty("Authorization", "Bearer " + ACCESS_TOKEN);
-            conn.setRequestProperty("Content-Type", "text/plain"); // IGDB expects the query to be sent as plain text
-            conn.setDoOutput(true);
-
-            conn.getOutputStream().write(query.getBytes());
-
-            BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String inputLine;
-            while ((inputLine = in.readLine()) != null) {
-                response.append(inputLine);
-            }
-            in.close();
-
-            JSONArray results = new JSONArray(response.toString());
-            return results.toList().stream()
-                    .map(obj -> (HashMap<?, ?>) obj)
-                    .map(map -> (String) map.get("name"))
-                    .collect(Collectors.toList());
-
+            return cacheGames(timed(call, () -> igdbClient.fetchGames(query, projection)), projection);
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("IGDB query failed: {}", query, e);
         }
 
         return List.of(); // Return empty list on error
     }
 
     /**
-     * Fetches games from the IGDB API based on the provided query string.
+     * Async counterpart of {@link #fetchGamesFromApi}.
      *
-     * @param query the formatted IGDB API query string
-     * @return a list of VideoGame objects
+     * @param call       what the games are fetched for, to tag the call's timer with
+     * @param query      the formatted IGDB API query string
+     * @param projection the projection the query selects
+     * @param priority   the request's priority with the IGDB governor
+     * @return a future completed with the games, or an empty list on error or if the request was shed
      */
-    private List<VideoGame> fetchGamesFromApi(String query) {
+    private CompletableFuture<List<VideoGame>> fetchGamesFromApiAsync(String call, String query, GameProjection projection, Priority priority) {
+        return timedAsync(call, () -> igdbClient.fetchGamesAsync(query, projection, priority))
+                .thenApply(games -> cacheGames(games, projection))
+                .exceptionally(e -> {
+                    log.warn("IGDB query failed: {}", query, e);
+                    return List.of(); // Return empty list on error
+                });
+    }
+
+    /**
+     * Fetches games by ID in batches of up to 500 IDs, sent in parallel. The games are added to the game cache.
+     *
+     * @param call     what the games are fetched for, to tag the calls' timer with
+     * @param ids      the IDs of the games
+     * @param priority the requests' priority with the IGDB governor
+     * @return a future completed with the games IGDB knows; batches that failed are left out
+     */
+    private CompletableFuture<List<VideoGame>> fetchGamesByIdsFromApi(String call, List<Long> ids, Priority priority) {
+        List<CompletableFuture<List<VideoGame>>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IGDB_MAX_LIMIT) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + IGDB_MAX_LIMIT));
+            batches.add(fetchGamesFromApiAsync(call, gamesByIdsQuery(batch), GameProjection.DETAIL, priority));
+        }
+
+        return CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new))
+                .thenApply(done -> batches.stream().flatMap(batch -> batch.join().stream()).toList());
+    }
+
+    /**
+     * Runs an IGDB call, timing it as gamefinder.upstream.calls by call and outcome. The timer covers the whole
+     * call, waiting for a permit and answers served from stored responses included.
+     */
+    private <T> T timed(String call, Callable<T> work) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "error";
         try {
-            URL url = new URL(API_URL);
-
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Client-ID", CLIENT_ID);
-            conn.setRequestProperty("Authorization", "Bearer " + ACCESS_TOKEN);
-            conn.setRequestProperty("Content-Type", "text/plain"); // IGDB expects the query to be sent as plain text
-            conn.setDoOutput(true);
-
-            conn.getOutputStream().write(query.getBytes());
-
-            BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-            StringBuilder response = new StringBuilder();
-            String inputLine;
-            while ((inputLine = in.readLine()) != null) {
-                response.append(inputLine);
-            }
-            in.close();
+            T result = work.call();
+            outcome = "success";
+            return result;
+        } finally {
+            upstreamTimer(call, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
-            JSONArray results = new JSONArray(response.toString());
-            return ResultSetMapper.mapApiResponseToVideoGames(results);
+    /**
+     * Async counterpart of {@link #timed}, stopping the timer when the future completes.
+     */
+    private <T> CompletableFuture<T> timedAsync(String call, Supplier<CompletableFuture<T>> work) {
+        long start = System.nanoTime();
+        return work.get().whenComplete((result, error) ->
+                upstreamTimer(call, error == null ? "success" : "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+    private Timer upstreamTimer(String call, String outcome) {
+        return Timer.builder("gamefinder.upstream.calls")
+                .description("Game data calls that went to IGDB")
+                .tags("call", call, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private boolean isAnsweredLocally(GameQuery query) {
+        return (query.isSearch() ? searchIndex.isReady() : searchIndex.isBrowseReady()) || catalogService.isServingLocal();
+    }
+
+    private List<VideoGame> cacheList(GameQuery query, List<VideoGame> games) {
+        if (!games.isEmpty()) { // Empty on error too; not worth keeping either way
+            listCache.put(query, games);
         }
+        return games;
+    }
 
-        return List.of(); // Return empty list on error
+    private static <K> boolean isStale(Cache<K, ?> cache, K key, Duration maxAge) {
+        return cache.policy().expireAfterWrite()
+                .flatMap(expiration -> expiration.ageOf(key))
+                .map(age -> age.compareTo(maxAge) >= 0)
+                .orElse(true);
+    }
+
+    private List<VideoGame> cacheGames(List<VideoGame> games, GameProjection projection) {
+        if (projection == GameProjection.DETAIL) {
+            for (VideoGame game : games) {
+                gameCache.put(game.getGameId(), CompactGame.of(game));
+            }
+        }
+        return games;
+    }
+
+    private static String gameByIdQuery(Long id) {
+        return GameProjection.DETAIL.igdbFields() + "where id = " + id + ";";
+    }
+
+    private static String gamesByIdsQuery(List<Long> ids) {
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(",", "(", ")"));
+        return GameProjection.DETAIL.igdbFields() + "where id = " + idList + "; limit " + ids.size() + ";";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String quoteAll(Collection<String> values) {
+        return values.stream().map(GameDataService::quote).collect(Collectors.joining(",", "(", ")"));
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toEpochSecond(); // Same zone ResultSetMapper formats dates in
     }
 }
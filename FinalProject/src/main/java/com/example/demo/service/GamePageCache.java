@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.model.VideoGame;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Rendered HTML for the parts of the game page that are the same for every visitor: title, cover, facts and
+ * description, from templates/fragments/game-static.html. The page then only renders the combined rating and the
+ * visitor's review form around them.
+ * <p>
+ * Entries are keyed by game ID and carry a version hashed from the fields they show, so a game whose data changed
+ * upstream is rendered again on its next view. Catalog ingestion clears the cache, and a saved review evicts its
+ * game's entry.
+ */
+@Service
+public class GamePageCache {
+
+    private static final String TEMPLATE = "fragments/game-static";
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${gamefinder.cache.game-pages.max-size:2000}")
+    private long maxSize;
+
+    private Cache<Long, Fragments> cache;
+
+    @PostConstruct
+    void initCache() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "game_pages");
+    }
+
+    /**
+     * The static parts of a game's page, each a piece of HTML ready to insert unescaped.
+     *
+     * @param version     hash of the game fields the HTML was rendered from
+     * @param header      title, ID and cover
+     * @param facts       genres, platforms, publisher and release date
+     * @param companies   involved companies
+     * @param description the description
+     */
+    public record Fragments(int version, String header, String facts, String companies, String description) {
+    }
+
+    /**
+     * Returns the static parts of a game's page, rendering them on the first view or when the game changed.
+     *
+     * @param game the game, as loaded for the page
+     * @return the rendered fragments
+     */
+    public Fragments get(VideoGame game) {
+        int version = version(game);
+        Fragments cached = cache.getIfPresent(game.getGameId());
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+
+        Fragments rendered = render(game, version);
+        cache.put(game.getGameId(), rendered);
+        return rendered;
+    }
+
+    /**
+     * Drops a game's fragments, so its next view renders them again.
+     *
+     * @param gameId the ID of the game
+     */
+    public void evict(Long gameId) {
+        if (gameId != null) {
+            cache.invalidate(gameId);
+        }
+    }
+
+    /**
+     * Drops every game's fragments, e.g. after the local catalog was refreshed.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private Fragments render(VideoGame game, int version) {
+        Context context = new Context();
+        context.setVariable("videoGame", game);
+        return new Fragments(version,
+                templateEngine.process(TEMPLATE, Set.of("header"), context),
+                templateEngine.process(TEMPLATE, Set.of("facts"), context),
+                templateEngine.process(TEMPLATE, Set.of("companies"), context),
+                templateEngine.process(TEMPLATE, Set.of("description"), context));
+    }
+
+    private static int version(VideoGame game) {
+        return Objects.hash(game.getGameName(), game.getImageUrl(), game.getGenre(), game.getPlatform(),
+                game.getPublisher(), game.getReleaseDate(), game.getInvolvedCompanies(), game.getDescription());
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CompactGame;
+import com.example.demo.model.FacetCount;
+import com.example.demo.model.GameFacets;
+import com.example.demo.model.GameQuery;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.FilterIndex;
+import com.example.demo.util.InvertedIndex;
+import com.example.demo.util.PageCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Full-text search over the local catalog mirror, answered from memory instead of IGDB's search clause.
+ * Rebuilds happen off to the side and are swapped in whole, so searches never wait on one.
+ * Games are held in their compact form, since the index keeps the whole mirror in memory.
+ * <p>
+ * The same snapshot holds a {@link FilterIndex} over the games and each sort order precomputed, so filtered lists
+ * and facet counts are answered from memory as well: filters become bitmap intersections, and a page is taken
+ * by walking the sort order until it is full.
+ */
+@Service
+public class GameSearchIndex {
+
+    // Field order: name, developer, publisher, description. A hit in the name counts most.
+    private static final double[] FIELD_WEIGHTS = {3.0, 1.0, 1.0, 0.5};
+
+    private static final String GENRE = "genre";
+    private static final String PLATFORM = "platform";
+    private static final String MATURITY = "maturity";
+
+    // Text sort keys, as CatalogService sorts them; rating sorts by number
+    private static final Map<String, Function<CompactGame, String>> TEXT_SORTS = Map.of(
+            "name", CompactGame::getGameName,
+            "release_dates", CompactGame::getReleaseDate,
+            "involved_companies", CompactGame::getInvolvedCompanies);
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Value("${gamefinder.search.local-index:true}")
+    private boolean enabled;
+
+    @Value("${gamefinder.search.local-browse:true}")
+    private boolean browseEnabled;
+
+    // The indexes and the games their document ids point into, always replaced together
+    private volatile Snapshot snapshot = snapshot(new InvertedIndex.Builder(FIELD_WEIGHTS), new FilterIndex.Builder(), new CompactGame[0]);
+
+    /**
+     * Builds the index in the background once the application is up, if enabled.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Re-reads the local mirror and swaps in a fresh index. If the read fails, the current index is kept.
+     *
+     * @return the number of games in the index
+     */
+    public synchronized int rebuild() {
+        InvertedIndex.Builder builder = new InvertedIndex.Builder(FIELD_WEIGHTS);
+        FilterIndex.Builder filters = new FilterIndex.Builder(GENRE, PLATFORM, MATURITY);
+        List<CompactGame> games = new ArrayList<>();
+
+        boolean complete = catalogService.forEachGame(game -> {
+            builder.add(game.getGameName(), game.getDeveloper(), game.getPublisher(), game.getDescription());
+            CompactGame compact = CompactGame.of(game);
+            int doc = filters.add(compact.getRating(), compact.getReleaseDay());
+            filters.tag(doc, GENRE, compact.getGenres())
+                    .tag(doc, PLATFORM, compact.getPlatforms())
+                    .tag(doc, MATURITY, compact.getMaturityRating() == null ? List.of() : List.of(compact.getMaturityRating()));
+            games.add(compact);
+        });
+
+        if (complete) {
+            snapshot = snapshot(builder, filters, games.toArray(new CompactGame[0]));
+        }
+        return snapshot.games().length;
+    }
+
+    /**
+     * Whether searches should be answered from this index. Only while the local mirror is the configured source:
+     * the mirror may hold just part of the catalog, which IGDB would answer in full.
+     *
+     * @return true if enabled, serving locally, and the index holds at least one game
+     */
+    public boolean isReady() {
+        return enabled && catalogService.isServingLocal() && snapshot.games().length > 0;
+    }
+
+    /**
+     * Whether lists without search text should be answered from this index too.
+     *
+     * @return true if browsing is enabled and the index is ready
+     */
+    public boolean isBrowseReady() {
+        return browseEnabled && isReady();
+    }
+
+    /**
+     * Searches game names, developers, publishers and descriptions. Every word has to match; the last one may be
+     * the start of a word, and misspelled words match close dictionary terms.
+     *
+     * @param query  the search term
+     * @param limit  number of games to fetch
+     * @param offset offset for pagination
+     * @return the best matching games, best first
+     */
+    public List<VideoGame> search(String query, int limit, int offset) {
+        Snapshot current = snapshot;
+        int[] docs = current.index().search(query, limit, offset);
+
+        List<VideoGame> games = new ArrayList<>(docs.length);
+        for (int doc : docs) {
+            games.add(current.games()[doc].toVideoGame()); // A new VideoGame, so callers may modify it
+        }
+        return games;
+    }
+
+    /**
+     * Searches like {@link #search(String, int, int)}, returning only games that pass the query's filters.
+     *
+     * @param query a query with search text
+     * @return one page of the best matching games that pass the filters, best first, with the query's projection
+     */
+    public List<VideoGame> search(GameQuery query) {
+        Snapshot current = snapshot;
+        long[] bits = filter(current.filters(), query);
+        int[] docs = bits == null
+                ? current.index().search(query.getSearch(), query.getLimit(), query.getOffset())
+                : current.index().search(query.getSearch(), query.getLimit(), query.getOffset(), doc -> FilterIndex.contains(bits, doc));
+        return toVideoGames(current, docs, query);
+    }
+
+    /**
+     * Lists the games passing a query's filters in the query's sort order, like CatalogService.findGames.
+     *
+     * @param query a query without search text
+     * @return one page of games, with the query's projection; empty if the cursor was tampered with
+     */
+    public List<VideoGame> browse(GameQuery query) {
+        Snapshot current = snapshot;
+        long[] bits = filter(current.filters(), query);
+        int[] order = current.orders().get(query.getSortBy());
+
+        int from = query.isDescending() ? order.length : 0;
+        PageCursor after = query.getAfter();
+        if (after != null) {
+            try {
+                from = keysetStart(current.games(), order, query, after);
+            } catch (NumberFormatException e) {
+                return List.of(); // Tampered cursor
+            }
+        }
+
+        int[] docs = FilterIndex.select(bits == null ? current.filters().all() : bits, order, from,
+                query.isDescending(), query.getOffset(), query.getLimit());
+        return toVideoGames(current, docs, query);
+    }
+
+    /**
+     * Counts the games matching a query's search text and filters, per genre, platform and maturity rating.
+     * The genre counts apply every filter but the genre filter, and likewise for platforms, so they tell how many
+     * games picking one more value would match. Sort and page are ignored.
+     *
+     * @param query the search text and filters
+     * @return the number of matching games and the facet counts, most common first
+     */
+    public GameFacets facets(GameQuery query) {
+        Snapshot current = snapshot;
+        FilterIndex filters = current.filters();
+
+        long[] base = filter(filters, GameQuery.builder()
+                .minRating(query.getMinRating()).maxRating(query.getMaxRating())
+                .minYear(query.getMinYear()).maxYear(query.getMaxYear())
+                .build());
+        base = base == null ? filters.all() : base;
+        if (query.isSearch()) {
+            FilterIndex.and(base, current.index().matches(query.getSearch()));
+        }
+        long[] genres = query.getGenres().isEmpty() ? null : filters.anyOf(GENRE, query.getGenres());
+        long[] platforms = query.getPlatforms().isEmpty() ? null : filters.anyOf(PLATFORM, query.getPlatforms());
+
+        long[] genreBase = and(base.clone(), platforms);
+        long[] platformBase = and(base.clone(), genres);
+        long[] matching = and(platformBase.clone(), platforms);
+
+        return new GameFacets(FilterIndex.cardinality(matching),
+                facetCounts(filters.counts(GENRE, genreBase)),
+                facetCounts(filters.counts(PLATFORM, platformBase)),
+                facetCounts(filters.counts(MATURITY, matching)));
+    }
+
+    /**
+     * Counts the games matching a search.
+     *
+     * @param query the search term
+     * @return the number of matching games
+     */
+    public int count(String query) {
+        return snapshot.index().count(query);
+    }
+
+    /**
+     * Completes the last word of a query from the words in the index.
+     *
+     * @param prefix the text typed so far
+     * @param limit  maximum number of words to return
+     * @return indexed words starting with the last word of the prefix, most common first
+     */
+    public List<String> completeWord(String prefix, int limit) {
+        return snapshot.index().complete(prefix, limit);
+    }
+
+    /**
+     * Intersects the bitmaps of a query's filters.
+     *
+     * @return the games passing every filter, or null if the query has no filters
+     */
+    private static long[] filter(FilterIndex filters, GameQuery query) {
+        long[] bits = null;
+        if (!query.getGenres().isEmpty()) {
+            bits = and(bits, filters.anyOf(GENRE, query.getGenres()));
+        }
+        if (!query.getPlatforms().isEmpty()) {
+            bits = and(bits, filters.anyOf(PLATFORM, query.getPlatforms()));
+        }
+        if (query.getMinRating() != null || query.getMaxRating() != null) {
+            bits = and(bits, filters.ratingBetween(
+                    query.getMinRating() == null ? Double.NEGATIVE_INFINITY : query.getMinRating(),
+                    query.getMaxRating() == null ? Double.POSITIVE_INFINITY : query.getMaxRating()));
+        }
+        if (query.getMinYear() != null || query.getMaxYear() != null) {
+            bits = and(bits, filters.releasedBetween(
+                    query.getMinYear() == null ? FilterIndex.NO_DAY + 1 : (int) LocalDate.of(query.getMinYear(), 1, 1).toEpochDay(),
+                    query.getMaxYear() == null ? Integer.MAX_VALUE : (int) LocalDate.of(query.getMaxYear(), 12, 31).toEpochDay()));
+        }
+        return bits;
+    }
+
+    // Null stands for every game
+    private static long[] and(long[] bits, long[] other) {
+        if (other == null) {
+            return bits;
+        }
+        return bits == null ? other : FilterIndex.and(bits, other);
+    }
+
+    /**
+     * Finds where a keyset page starts in a sort order: the first game after the cursor when ascending, or the
+     * position below which every game comes before the cursor when descending.
+     */
+    private static int keysetStart(CompactGame[] games, int[] order, GameQuery query, PageCursor after) {
+        double ratingKey = "rating".equals(query.getSortBy()) ? Double.parseDouble(after.getKey()) : 0;
+        IntFunction<Integer> compare = doc -> {
+            CompactGame game = games[doc];
+            int byKey = switch (query.getSortBy()) {
+                case "rating" -> Double.compare(game.getRating(), ratingKey);
+                case "release_dates" -> Objects.toString(game.getReleaseDate(), "").compareTo(after.getKey());
+                default -> Objects.toString(game.getGameName(), "").compareTo(after.getKey());
+            };
+            return byKey != 0 ? byKey : Long.compare(game.getGameId(), after.getLastId());
+        };
+
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int position = compare.apply(order[middle]);
+            if (position < 0 || (position == 0 && !query.isDescending())) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static List<FacetCount> facetCounts(Map<String, Integer> counts) {
+        List<FacetCount> facetCounts = new ArrayList<>(counts.size());
+        counts.forEach((name, count) -> facetCounts.add(new FacetCount(name, count)));
+        facetCounts.sort(Comparator.comparingInt(FacetCount::getCount).reversed().thenComparing(FacetCount::getName));
+        return facetCounts;
+    }
+
+    private static List<VideoGame> toVideoGames(Snapshot current, int[] docs, GameQuery query) {
+        List<VideoGame> games = new ArrayList<>(docs.length);
+        for (int doc : docs) {
+            games.add(current.games()[doc].toVideoGame(query.getProjection()));
+        }
+        return games;
+    }
+
+    private static Snapshot snapshot(InvertedIndex.Builder index, FilterIndex.Builder filters, CompactGame[] games) {
+        // Ordered like CatalogService's ORDER BY: sort key, then gameId
+        Map<String, int[]> orders = new HashMap<>();
+        Comparator<Integer> byId = Comparator.comparingLong(doc -> games[doc].getGameId());
+        orders.put("rating", sortDocs(games.length, Comparator.<Integer>comparingDouble(doc -> games[doc].getRating()).thenComparing(byId)));
+        TEXT_SORTS.forEach((sortBy, key) -> {
+            String[] keys = Arrays.stream(games).map(game -> Objects.toString(key.apply(game), "")).toArray(String[]::new);
+            orders.put(sortBy, sortDocs(games.length, Comparator.<Integer, String>comparing(doc -> keys[doc]).thenComparing(byId)));
+        });
+        return new Snapshot(index.build(), filters.build(), games, orders);
+    }
+
+    private static int[] sortDocs(int count, Comparator<Integer> comparator) {
+        Integer[] order = new Integer[count];
+        for (int doc = 0; doc < count; doc++) {
+            order[doc] = doc;
+        }
+        Arrays.sort(order, comparator);
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    private record Snapshot(InvertedIndex index, FilterIndex filters, CompactGame[] games, Map<String, int[]> orders) {
+    }
+}
@@ -0,0 +1,576 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.CircuitBreaker;
+import com.example.demo.util.RequestGovernor;
+import com.example.demo.util.RequestGovernor.Outcome;
+import com.example.demo.util.RequestGovernor.Priority;
+import com.example.demo.util.ResultSetMapper;
+import com.example.demo.util.SingleFlight;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.json.JSONArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends APICALYPSE queries to the IGDB API over the shared HTTP client. Every request goes through the shared
+ * {@link RequestGovernor}, so bursts queue up by priority instead of running into IGDB's rate limit.
+ * <p>
+ * A {@link CircuitBreaker} stops sending requests while IGDB keeps failing or answering slowly. Every successful
+ * answer is kept in the {@link IgdbResponseStore}; when a query fails, is shed, or is refused by the open breaker,
+ * the last answer to the same query is served instead, if there is one.
+ */
+@Service
+public class IgdbClient {
+
+    private static final Logger log = LoggerFactory.getLogger(IgdbClient.class);
+
+    public static final String GAMES = "games";
+    public static final String GENRES = "genres";
+    public static final String PLATFORMS = "platforms";
+
+    private static final TypeReference<List<VideoGame>> GAME_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<String>> NAME_LIST = new TypeReference<>() {
+    };
+
+    @Autowired
+    private HttpClient igdbHttpClient;
+
+    @Autowired
+    private RequestGovernor igdbGovernor;
+
+    @Autowired
+    private CircuitBreaker igdbCircuitBreaker;
+
+    @Autowired
+    private IgdbResponseStore responseStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${igdb.base-url:https://api.igdb.com/v4}")
+    private String baseUrl;
+
+    @Value("${igdb.client-id:hehe}")
+    private String clientId;
+
+    @Value("${igdb.access-token:haha}")
+    private String accessToken;
+
+    @Value("${igdb.request-timeout:10s}")
+    private Duration requestTimeout;
+
+    // Concurrent identical game queries at the same priority share one upstream request and its parsed result.
+    // Keyed by priority too, so a user's query never waits behind a background prefetch queued at LOW.
+    private final SingleFlight<String, List<VideoGame>> gameQueries = new SingleFlight<>();
+
+    // Answers served from the response store instead of IGDB
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * Queries the games endpoint at normal priority. If an identical query is already in flight at the same
+     * priority, waits for its result instead.
+     *
+     * @param query the IGDB API query string, selecting {@link GameProjection#DETAIL} fields
+     * @return an unmodifiable list of VideoGame objects, possibly shared with concurrent callers
+     * @throws Exception if the request fails, is shed, or IGDB answers with an error status
+     */
+    public List<VideoGame> fetchGames(String query) throws Exception {
+        return fetchGames(query, GameProjection.DETAIL, Priority.NORMAL);
+    }
+
+    /**
+     * Queries the games endpoint at normal priority with a query built on a projection's fields clause.
+     *
+     * @param query      the IGDB API query string
+     * @param projection the projection the query selects
+     * @return an unmodifiable list of VideoGame objects with only the projection's fields set
+     * @throws Exception if the request fails, is shed, or IGDB answers with an error status
+     */
+    public List<VideoGame> fetchGames(String query, GameProjection projection) throws Exception {
+        return fetchGames(query, projection, Priority.NORMAL);
+    }
+
+    /**
+     * Queries the games endpoint with a query built on a projection's fields clause. Identical queries select
+     * the same fields, so coalescing them by query string and priority never mixes projections. The calling
+     * thread waits for a permit from the governor, then for the response. If the query fails, the last answer
+     * to it is served instead.
+     *
+     * @param query      the IGDB API query string
+     * @param projection the projection the query selects
+     * @param priority   HIGH for a page a user is waiting on, LOW for background work
+     * @return an unmodifiable list of VideoGame objects with only the projection's fields set
+     * @throws Exception if the request fails, is shed or refused ({@link RejectedExecutionException}), or IGDB
+     *                   answers with an error status ({@link StatusException}), and there is no earlier answer
+     */
+    public List<VideoGame> fetchGames(String query, GameProjection projection, Priority priority) throws Exception {
+        String normalized = normalizeQuery(query);
+        return gameQueries.call(flightKey(normalized, priority), () -> {
+            try {
+                List<VideoGame> games = send(GAMES, normalized, priority, HttpResponse.BodyHandlers.ofInputStream(),
+                        (response, exchange) -> mapGames(response, projection, exchange));
+                if (isWorthStoring(normalized, priority)) {
+                    remember(GAMES, normalized, games);
+                }
+                return games;
+            } catch (IOException | RuntimeException e) {
+                List<VideoGame> games = lastKnownGames(normalized);
+                if (games == null) {
+                    throw e;
+                }
+                return games;
+            }
+        });
+    }
+
+    /**
+     * Async counterpart of {@link #fetchGames(String, GameProjection)}, at normal priority.
+     *
+     * @param query      the IGDB API query string
+     * @param projection the projection the query selects
+     * @return a future completed with an unmodifiable list of games, or exceptionally if the request fails
+     */
+    public CompletableFuture<List<VideoGame>> fetchGamesAsync(String query, GameProjection projection) {
+        return fetchGamesAsync(query, projection, Priority.NORMAL);
+    }
+
+    /**
+     * Queries the games endpoint without blocking the calling thread, neither while waiting for a permit nor
+     * for the response. If an identical query is already in flight at the same priority, the returned future
+     * shares its result.
+     * If the query fails, the last answer to it is served instead.
+     *
+     * @param query      the IGDB API query string
+     * @param projection the projection the query selects
+     * @param priority   HIGH for a page a user is waiting on, LOW for background work
+     * @return a future completed with an unmodifiable list of games, or exceptionally if the request fails, is
+     *         shed or refused, and there is no earlier answer
+     */
+    public CompletableFuture<List<VideoGame>> fetchGamesAsync(String query, GameProjection projection, Priority priority) {
+        String normalized = normalizeQuery(query);
+        return gameQueries.execute(flightKey(normalized, priority), () -> sendGamesAsync(normalized, projection, priority).handle((games, error) -> {
+            if (error == null) {
+                if (isWorthStoring(normalized, priority)) {
+                    remember(GAMES, normalized, games);
+                }
+                return games;
+            }
+            List<VideoGame> lastKnown = lastKnownGames(normalized);
+            if (lastKnown == null) {
+                throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+            }
+            return lastKnown;
+        }));
+    }
+
+    /**
+     * Number of game queries requested through this client, including coalesced ones.
+     *
+     * @return the game query count
+     */
+    public long getGameQueryCount() {
+        return gameQueries.getCallCount();
+    }
+
+    /**
+     * Number of game queries that shared an identical in-flight request instead of sending their own.
+     *
+     * @return the coalesced game query count
+     */
+    public long getCoalescedGameQueryCount() {
+        return gameQueries.getCoalescedCount();
+    }
+
+    /**
+     * Number of queries answered from the response store because IGDB could not answer them.
+     *
+     * @return the fallback count
+     */
+    public long getFallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * @return the state of the circuit breaker in front of IGDB
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return igdbCircuitBreaker.getState();
+    }
+
+    /**
+     * Normalizes an IGDB query so equivalent queries map to the same key: trims it and collapses runs
+     * of whitespace outside quoted strings.
+     *
+     * @param query the IGDB API query string
+     * @return the normalized query
+     */
+    public static String normalizeQuery(String query) {
+        StringBuilder normalized = new StringBuilder(query.length());
+        boolean quoted = false;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (!quoted && Character.isWhitespace(c)) {
+                pendingSpace = !normalized.isEmpty();
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '"' && (i == 0 || query.charAt(i - 1) != '\\')) {
+                quoted = !quoted;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Queries an endpoint whose records have a name field (genres, platforms) and returns the names.
+     * Sent at low priority: these lists change rarely and are refreshed in the background. If the query fails,
+     * the last answer to it is served instead.
+     *
+     * @param endpoint the endpoint, e.g. {@link #GENRES}
+     * @param query    the IGDB API query string
+     * @return the names in response order
+     * @throws IOException                if the request fails or IGDB answers with an error status, and there is
+     *                                    no earlier answer
+     * @throws InterruptedException       if the calling thread is interrupted while waiting
+     * @throws RejectedExecutionException if the request is shed or refused, and there is no earlier answer
+     */
+    public List<String> fetchNames(String endpoint, String query) throws IOException, InterruptedException {
+        String normalized = normalizeQuery(query);
+        try {
+            List<String> names = send(endpoint, normalized, Priority.LOW, HttpResponse.BodyHandlers.ofByteArray(), IgdbClient::mapNames);
+            remember(endpoint, normalized, names);
+            return names;
+        } catch (IOException | RuntimeException e) {
+            List<String> names = lastKnown(endpoint, normalized, NAME_LIST);
+            if (names == null) {
+                throw e;
+            }
+            return names;
+        }
+    }
+
+    /**
+     * Sends one request past the circuit breaker and the governor, and reports how it went to both.
+     */
+    private <B, T> T send(String endpoint, String query, Priority priority, HttpResponse.BodyHandler<B> bodyHandler,
+                          ResponseMapper<B, T> mapper) throws IOException, InterruptedException {
+        if (!igdbCircuitBreaker.tryAcquire()) {
+            throw new RejectedExecutionException("IGDB circuit breaker is open");
+        }
+        RequestGovernor.Permit permit;
+        try {
+            permit = igdbGovernor.await(priority);
+        } catch (RejectedExecutionException | InterruptedException e) {
+            igdbCircuitBreaker.onIgnored();
+            throw e;
+        }
+
+        Exchange exchange = new Exchange(endpoint, priority);
+        try {
+            T result = mapper.map(exchange.received(igdbHttpClient.send(buildRequest(endpoint, query), bodyHandler)), exchange);
+            exchange.finish(null);
+            permit.release(Outcome.SUCCESS);
+            igdbCircuitBreaker.onSuccess(exchange.elapsed());
+            return result;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            exchange.finish(e);
+            permit.release(outcome(e));
+            recordFailure(e, exchange.elapsed());
+            throw e;
+        }
+    }
+
+    /**
+     * Async counterpart of {@link #send} for game queries.
+     */
+    private CompletableFuture<List<VideoGame>> sendGamesAsync(String query, GameProjection projection, Priority priority) {
+        if (!igdbCircuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("IGDB circuit breaker is open"));
+        }
+        return igdbGovernor.acquire(priority)
+                .whenComplete((permit, error) -> {
+                    if (error != null) {
+                        igdbCircuitBreaker.onIgnored();
+                    }
+                })
+                .thenCompose(permit -> {
+                    Exchange exchange = new Exchange(GAMES, priority);
+                    try {
+                        return igdbHttpClient.sendAsync(buildRequest(GAMES, query), HttpResponse.BodyHandlers.ofInputStream())
+                                .thenApply(response -> {
+                                    try {
+                                        return mapGames(exchange.received(response), projection, exchange);
+                                    } catch (IOException e) {
+                                        throw new UncheckedIOException(e);
+                                    }
+                                })
+                                .whenComplete((games, error) -> {
+                                    exchange.finish(error);
+                                    if (error == null) {
+                                        permit.release(Outcome.SUCCESS);
+                                        igdbCircuitBreaker.onSuccess(exchange.elapsed());
+                                    } else {
+                                        permit.release(outcome(error));
+                                        recordFailure(error, exchange.elapsed());
+                                    }
+                                });
+                    } catch (RuntimeException e) {
+                        permit.release(Outcome.FAILED);
+                        igdbCircuitBreaker.onIgnored();
+                        throw e;
+                    }
+                });
+    }
+
+    /**
+     * Tells the circuit breaker about a failed request: IGDB being unreachable, failing or rate limiting counts
+     * against it; an answer rejecting the query itself shows IGDB is up.
+     */
+    private void recordFailure(Throwable error, Duration elapsed) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof StatusException status && status.getStatusCode() / 100 == 4 && status.getStatusCode() != 429) {
+            igdbCircuitBreaker.onSuccess(elapsed);
+        } else if (cause instanceof IOException) {
+            igdbCircuitBreaker.onError();
+        } else {
+            igdbCircuitBreaker.onIgnored();
+        }
+    }
+
+    private void remember(String endpoint, String query, List<?> answer) {
+        responseStore.save(endpoint + ": " + query, answer);
+    }
+
+    private static String flightKey(String normalizedQuery, Priority priority) {
+        return priority + " " + normalizedQuery;
+    }
+
+    /**
+     * Whether a game answer is kept as a fallback: only lists users asked for. Background queries (catalog pages,
+     * prefetches) and lookups by ID are left out, since the local mirror and the game cache cover those, and
+     * storing them would copy the catalog into the response store.
+     */
+    private static boolean isWorthStoring(String query, Priority priority) {
+        return priority != Priority.LOW && !query.contains("where id = ") && !query.contains("where id > ");
+    }
+
+    private <T> T lastKnown(String endpoint, String query, TypeReference<T> type) {
+        String body = responseStore.find(endpoint + ": " + query);
+        if (body == null) {
+            return null;
+        }
+        try {
+            T answer = objectMapper.readValue(body, type);
+            fallbacks.increment();
+            return answer;
+        } catch (JsonProcessingException e) {
+            log.warn("Could not read the stored IGDB answer to {}", query, e);
+            return null;
+        }
+    }
+
+    private List<VideoGame> lastKnownGames(String query) {
+        List<VideoGame> games = lastKnown(GAMES, query, GAME_LIST);
+        return games == null ? null : Collections.unmodifiableList(games);
+    }
+
+    private static List<String> mapNames(HttpResponse<byte[]> response, Exchange exchange) throws IOException {
+        checkStatus(response);
+        exchange.read(response.body().length);
+
+        JSONArray results = new JSONArray(new String(response.body(), StandardCharsets.UTF_8));
+        List<String> names = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            names.add(results.getJSONObject(i).optString("name"));
+        }
+        return names;
+    }
+
+    private HttpRequest buildRequest(String endpoint, String query) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/" + endpoint))
+                .timeout(requestTimeout)
+                .header("Client-ID", clientId)
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "text/plain") // IGDB expects the query to be sent as plain text
+                .POST(HttpRequest.BodyPublishers.ofString(query, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private static List<VideoGame> mapGames(HttpResponse<InputStream> response, GameProjection projection, Exchange exchange) throws IOException {
+        try (CountingInputStream body = new CountingInputStream(response.body())) {
+            checkStatus(response);
+            // Decode straight from the connection instead of buffering the whole body first
+            List<VideoGame> games = ResultSetMapper.mapApiResponseToVideoGames(body, projection);
+            exchange.read(body.getCount());
+            return Collections.unmodifiableList(games);
+        }
+    }
+
+    /**
+     * Tells the governor whether a failure means IGDB is overloaded: rate limited, unavailable, or too slow.
+     */
+    private static Outcome outcome(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof HttpTimeoutException) {
+            return Outcome.OVERLOADED;
+        }
+        if (cause instanceof StatusException status && (status.getStatusCode() == 429 || status.getStatusCode() == 503)) {
+            return Outcome.OVERLOADED;
+        }
+        return Outcome.FAILED;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException || error instanceof UncheckedIOException ? error.getCause() : error;
+    }
+
+    private static void checkStatus(HttpResponse<?> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new StatusException(response.uri().getPath(), response.statusCode());
+        }
+    }
+
+    private interface ResponseMapper<B, T> {
+        T map(HttpResponse<B> response, Exchange exchange) throws IOException;
+    }
+
+    /**
+     * One request to IGDB, timed from getting its permit until its answer is read. Recorded as
+     * gamefinder.igdb.requests by endpoint, priority and HTTP status (TIMEOUT or IO_ERROR without an answer),
+     * and gamefinder.igdb.response.size by endpoint.
+     */
+    private final class Exchange {
+
+        private final String endpoint;
+        private final Priority priority;
+        private final long start = System.nanoTime();
+        private volatile int statusCode;
+
+        Exchange(String endpoint, Priority priority) {
+            this.endpoint = endpoint;
+            this.priority = priority;
+        }
+
+        <B> HttpResponse<B> received(HttpResponse<B> response) {
+            statusCode = response.statusCode();
+            return response;
+        }
+
+        void read(long bytes) {
+            DistributionSummary.builder("gamefinder.igdb.response.size")
+                    .description("Size of IGDB response bodies")
+                    .baseUnit("bytes")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+
+        Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - start);
+        }
+
+        void finish(Throwable error) {
+            String status = statusCode != 0 ? String.valueOf(statusCode)
+                    : unwrap(error) instanceof HttpTimeoutException ? "TIMEOUT" : "IO_ERROR";
+            Timer.builder("gamefinder.igdb.requests")
+                    .description("Requests sent to IGDB")
+                    .tags("endpoint", endpoint, "priority", priority.name(), "status", status)
+                    .register(meterRegistry)
+                    .record(elapsed());
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * IGDB answered with an error status.
+     */
+    public static class StatusException extends IOException {
+
+        private final int statusCode;
+
+        public StatusException(String path, int statusCode) {
+            super("IGDB " + path + " returned HTTP " + statusCode);
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
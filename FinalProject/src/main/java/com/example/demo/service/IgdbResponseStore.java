@@ -0,0 +1,190 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the last successful IGDB answer to each query in the IgdbResponse table, so IgdbClient can serve
+ * a last-known-good answer while IGDB is down.
+ * <p>
+ * Answers are written by one background thread with a short queue: the write pool has a single connection that
+ * review saves need too, so when writes fall behind, new answers are dropped rather than queued without bound.
+ * Answers larger than the max body size are not kept, and the table is trimmed to the newest max entries as well
+ * as pruned by age, which bounds it in rows and bytes.
+ */
+@Service
+public class IgdbResponseStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IgdbResponseStore.class);
+
+    // Saves between trims of the table to its max entries, besides the scheduled prune
+    private static final int TRIM_EVERY = 100;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private DataSource writeDataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${igdb.fallback.max-age:7d}")
+    private Duration maxAge;
+
+    @Value("${igdb.fallback.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${igdb.fallback.max-body-size:256KB}")
+    private DataSize maxBodySize;
+
+    @Value("${igdb.fallback.queue-size:64}")
+    private int queueSize;
+
+    private ThreadPoolExecutor writer;
+    private int savesSinceTrim; // Only touched by the writer thread
+
+    private final LongAdder dropped = new LongAdder();
+
+    @PostConstruct
+    void startWriter() {
+        writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "igdb-response-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopWriter() {
+        writer.shutdown();
+    }
+
+    /**
+     * Stores an answer in the background, replacing the previous answer to the same query. The answer is
+     * serialized on the writer thread, and dropped if the writer is too far behind or it is too large.
+     *
+     * @param query  the normalized query, prefixed with its endpoint
+     * @param answer the answer; must not be modified afterwards
+     */
+    public void save(String query, Object answer) {
+        try {
+            writer.execute(() -> write(query, answer));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Looks up the last answer to a query.
+     *
+     * @param query the normalized query, prefixed with its endpoint
+     * @return the answer, as JSON, or null if there is none younger than the max age
+     */
+    public String find(String query) {
+        String sql = "SELECT body FROM IgdbResponse WHERE query = ? AND fetchedAt >= ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, query);
+            stmt.setLong(2, System.currentTimeMillis() - maxAge.toMillis());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getString("body");
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not read the stored IGDB answer to {}", query, e);
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of answers not stored because the writer was behind
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Deletes answers older than the max age, and all but the newest max entries.
+     */
+    @Scheduled(fixedDelayString = "${igdb.fallback.prune-interval:PT1H}")
+    public void prune() {
+        try (Connection conn = writeDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM IgdbResponse WHERE fetchedAt < ?")) {
+            stmt.setLong(1, System.currentTimeMillis() - maxAge.toMillis());
+            stmt.executeUpdate();
+        } catch (Exception e) {
+            log.warn("Could not prune stored IGDB answers", e);
+        }
+        trim();
+    }
+
+    private void write(String query, Object answer) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(answer);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize the IGDB answer to {}", query, e);
+            return;
+        }
+        if (body.getBytes(StandardCharsets.UTF_8).length > maxBodySize.toBytes()) {
+            return;
+        }
+
+        String sql = "INSERT INTO IgdbResponse (query, body, fetchedAt) VALUES (?, ?, ?) " +
+                "ON CONFLICT(query) DO UPDATE SET body = excluded.body, fetchedAt = excluded.fetchedAt";
+
+        try (Connection conn = writeDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, query);
+            stmt.setString(2, body);
+            stmt.setLong(3, System.currentTimeMillis());
+            stmt.executeUpdate();
+        } catch (Exception e) {
+            log.warn("Could not store the IGDB answer to {}", query, e);
+        }
+
+        if (++savesSinceTrim >= TRIM_EVERY) {
+            savesSinceTrim = 0;
+            trim();
+        }
+    }
+
+    private void trim() {
+        String sql = "DELETE FROM IgdbResponse WHERE fetchedAt < " +
+                "(SELECT fetchedAt FROM IgdbResponse ORDER BY fetchedAt DESC LIMIT 1 OFFSET ?)";
+
+        try (Connection conn = writeDataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, maxEntries - 1);
+            stmt.executeUpdate();
+        } catch (Exception e) {
+            log.warn("Could not trim stored IGDB answers", e);
+        }
+    }
+}
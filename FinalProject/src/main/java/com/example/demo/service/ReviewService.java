@@ -1,10 +1,17 @@
 package com.example.demo.service;
 
+import com.example.demo.model.GameRatingStats;
 import com.example.demo.model.GamesPlayed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.Optional;
@@ -12,75 +19,149 @@ import java.util.Optional;
 @Service
 public class ReviewService {
 
-    private static final String DB_URL = "jdbc:sqlite:FinalProject/src/main/resources/db/video_games.db";
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
 
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private DataSource writeDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Saves a user's review and adjusts the game's rating aggregate in the same transaction.
+     * When the user already reviewed the game, the old score is swapped out of the total.
+     *
+     * @param review the review to insert or update
+     * @return true if the review was saved
+     */
     public boolean saveReview(GamesPlayed review) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            String query = "INSERT INTO GamesPlayed (userId, gameId, ratingScore, reviewComment) VALUES (?, ?, ?, ?) " +
-                    "ON CONFLICT(userId, gameId) DO UPDATE SET ratingScore = ?, reviewComment = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setLong(1, review.getUserId());
-            stmt.setLong(2, review.getGameId());
-            stmt.setDouble(3, review.getRatingScore());
-            stmt.setString(4, review.getReviewComment());
-            stmt.setDouble(5, review.getRatingScore());
-            stmt.setString(6, review.getReviewComment());
-            stmt.executeUpdate();
-            return true;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String selectOld = "SELECT ratingScore FROM GamesPlayed WHERE userId = ? AND gameId = ?";
+        String upsertReview = "INSERT INTO GamesPlayed (userId, gameId, ratingScore, reviewComment) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT(userId, gameId) DO UPDATE SET ratingScore = ?, reviewComment = ?";
+        String upsertStats = "INSERT INTO GameRatingStats (gameId, total, count) VALUES (?, ?, 1) " +
+                "ON CONFLICT(gameId) DO UPDATE SET total = total + ?, count = count + ?";
+
+        try (Connection conn = writeDataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement oldStmt = conn.prepareStatement(selectOld);
+                 PreparedStatement reviewStmt = conn.prepareStatement(upsertReview);
+                 PreparedStatement statsStmt = conn.prepareStatement(upsertStats)) {
+                Double oldScore = null;
+                oldStmt.setLong(1, review.getUserId());
+                oldStmt.setLong(2, review.getGameId());
+                try (ResultSet rs = oldStmt.executeQuery()) {
+                    if (rs.next()) {
+                        oldScore = rs.getDouble("ratingScore");
+                    }
+                }
+
+                reviewStmt.setLong(1, review.getUserId());
+                reviewStmt.setLong(2, review.getGameId());
+                reviewStmt.setDouble(3, review.getRatingScore());
+                reviewStmt.setString(4, review.getReviewComment());
+                reviewStmt.setDouble(5, review.getRatingScore());
+                reviewStmt.setString(6, review.getReviewComment());
+                reviewStmt.executeUpdate();
+
+                statsStmt.setLong(1, review.getGameId());
+                statsStmt.setDouble(2, review.getRatingScore());
+                statsStmt.setDouble(3, oldScore == null ? review.getRatingScore() : review.getRatingScore() - oldScore);
+                statsStmt.setInt(4, oldScore == null ? 1 : 0);
+                statsStmt.executeUpdate();
+
+                conn.commit();
+                return stop(sample, "review.save", "success", true);
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not save review of game {} by user {}", review.getGameId(), review.getUserId(), e);
         }
-        return false;
+        return stop(sample, "review.save", "error", false);
     }
 
     public Optional<GamesPlayed> getReview(Long userId, Long gameId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            String query = "SELECT * FROM GamesPlayed WHERE userId = ? AND gameId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String query = "SELECT * FROM GamesPlayed WHERE userId = ? AND gameId = ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setLong(1, userId);
             stmt.setLong(2, gameId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                GamesPlayed review = new GamesPlayed();
-                review.setUserId(rs.getLong("userId"));
-                review.setGameId(rs.getLong("gameId"));
-                review.setRatingScore(rs.getDouble("ratingScore"));
-                review.setReviewComment(rs.getString("reviewComment"));
-                return Optional.of(review);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    GamesPlayed review = new GamesPlayed();
+                    review.setUserId(rs.getLong("userId"));
+                    review.setGameId(rs.getLong("gameId"));
+                    review.setRatingScore(rs.getDouble("ratingScore"));
+                    review.setReviewComment(rs.getString("reviewComment"));
+                    return stop(sample, "review.find", "success", Optional.of(review));
+                }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not read review of game {} by user {}", gameId, userId, e);
+            return stop(sample, "review.find", "error", Optional.empty());
         }
-        return Optional.empty();
+        return stop(sample, "review.find", "success", Optional.empty());
     }
-    public double getTotalReviewScore(Long gameId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            String query = "SELECT SUM(ratingScore) as total FROM GamesPlayed WHERE gameId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
+    /**
+     * Looks up the rating aggregate for a game with a single primary-key read.
+     *
+     * @param gameId the ID of the game
+     * @return the total and count of user ratings; zeros if the game has no reviews
+     */
+    public GameRatingStats getRatingStats(Long gameId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String query = "SELECT total, count FROM GameRatingStats WHERE gameId = ?";
+        GameRatingStats stats = new GameRatingStats();
+        stats.setGameId(gameId);
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
             stmt.setLong(1, gameId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble("total");
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    stats.setTotal(rs.getDouble("total"));
+                    stats.setCount(rs.getInt("count"));
+                }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not read rating stats of game {}", gameId, e);
+            return stop(sample, "review.rating_stats", "error", stats);
         }
-        return 0.0;
+        return stop(sample, "review.rating_stats", "success", stats);
+    }
+
+    public double getTotalReviewScore(Long gameId) {
+        return getRatingStats(gameId).getTotal();
     }
 
     public int getReviewCount(Long gameId) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            String query = "SELECT COUNT(*) as count FROM GamesPlayed WHERE gameId = ?";
-            PreparedStatement stmt = conn.prepareStatement(query);
-            stmt.setLong(1, gameId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("count");
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return 0;
+        return getRatingStats(gameId).getCount();
     }
 
+    /**
+     * Records a query as gamefinder.db.queries by query and outcome.
+     *
+     * @param sample  the sample started when the method was entered
+     * @param query   the query's name
+     * @param outcome "success", or "error" when the query failed and a fallback value is returned
+     * @param result  the method's return value
+     * @return the result, unchanged
+     */
+    private <T> T stop(Timer.Sample sample, String query, String outcome, T result) {
+        sample.stop(Timer.builder("gamefinder.db.queries")
+                .description("SQLite queries run by the review and user services")
+                .tags("query", query, "outcome", outcome)
+                .register(meterRegistry));
+        return result;
+    }
 }
@@ -0,0 +1,113 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Suggestion;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.PrefixIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typeahead completions of game names from the local catalog mirror, most reviewed games first.
+ * <p>
+ * Completions come from two immutable prefix indexes: a large one over the catalog as of the last full build,
+ * and a small one over games added since. New games only rebuild the small index, and are folded into the
+ * large one once they outnumber an eighth of it, so keeping suggestions current costs little per game.
+ */
+@Service
+public class SuggestionService {
+
+    private static final int MIN_PENDING_BEFORE_MERGE = 1024;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    // Games added since the last merge, keyed by ID; guarded by this
+    private final Map<Long, VideoGame> pending = new LinkedHashMap<>();
+
+    // Both indexes are replaced together, so readers never see a game twice or not at all
+    private volatile Snapshot snapshot = new Snapshot(new PrefixIndex.Builder().build(), new PrefixIndex.Builder().build());
+
+    /**
+     * Builds the index in the background once the application is up.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Re-reads the whole local mirror into a fresh index. If the read fails, the current index is kept.
+     *
+     * @return the number of games that can be suggested
+     */
+    public synchronized int rebuild() {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        boolean complete = catalogService.forEachGame(game -> builder.add(game.getGameId(), game.getGameName(), game.getReviewCount()));
+
+        if (complete) {
+            pending.clear();
+            snapshot = new Snapshot(builder.build(), new PrefixIndex.Builder().build());
+        }
+        return snapshot.base().size() + snapshot.recent().size();
+    }
+
+    /**
+     * Makes newly mirrored games available as suggestions. Games already known are updated.
+     *
+     * @param games games that were just written to the local mirror
+     */
+    public synchronized void addGames(List<VideoGame> games) {
+        for (VideoGame game : games) {
+            pending.put(game.getGameId(), game);
+        }
+
+        PrefixIndex base = snapshot.base();
+        if (pending.size() >= Math.max(MIN_PENDING_BEFORE_MERGE, base.size() / 8)) {
+            PrefixIndex.Builder builder = new PrefixIndex.Builder().addAll(base, pending::containsKey);
+            pending.values().forEach(game -> builder.add(game.getGameId(), game.getGameName(), game.getReviewCount()));
+            pending.clear();
+            snapshot = new Snapshot(builder.build(), new PrefixIndex.Builder().build());
+        } else {
+            PrefixIndex.Builder builder = new PrefixIndex.Builder();
+            pending.values().forEach(game -> builder.add(game.getGameId(), game.getGameName(), game.getReviewCount()));
+            snapshot = new Snapshot(base, builder.build());
+        }
+    }
+
+    /**
+     * Suggests games whose name, from the start of any word on, begins with the prefix. Case, accents and
+     * punctuation are ignored, so "witcher 3" and "wild h" both suggest "The Witcher 3: Wild Hunt".
+     *
+     * @param prefix the text typed so far
+     * @param limit  maximum number of suggestions
+     * @return suggestions, most reviewed first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        Snapshot current = snapshot;
+        List<PrefixIndex.Completion> recent = current.recent().complete(prefix, limit, id -> false);
+        List<PrefixIndex.Completion> base = current.base().complete(prefix, limit, current.recent()::contains);
+
+        // Both lists are sorted by weight, so merge them
+        List<Suggestion> suggestions = new ArrayList<>(limit);
+        int r = 0;
+        int b = 0;
+        while (suggestions.size() < limit && (r < recent.size() || b < base.size())) {
+            PrefixIndex.Completion next = b >= base.size() || (r < recent.size() && recent.get(r).weight() >= base.get(b).weight())
+                    ? recent.get(r++) : base.get(b++);
+            suggestions.add(new Suggestion(next.id(), next.text(), next.weight()));
+        }
+        return suggestions;
+    }
+
+    private record Snapshot(PrefixIndex base, PrefixIndex recent) {
+    }
+}
@@ -1,57 +1,77 @@
 package com.example.demo.service;
 import com.example.demo.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 
 @Service
 public class UserService {
 
-    private static final String DB_URL = "jdbc:sqlite:FinalProject/src/main/resources/db/video_games.db";
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("writeDataSource")
+    private DataSource writeDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     public boolean checkIfUsernameExists(String username) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         String sql = "SELECT 1 FROM User WHERE username = ?";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
 
             try (ResultSet rs = pstmt.executeQuery()) {
-                return rs.next(); // If a record exists, username is taken
+                return stop(sample, "user.username_exists", "success", rs.next()); // If a record exists, username is taken
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not check whether username {} exists", username, e);
         }
 
-        return false; // If an error occurs, assume username doesn't exist
+        return stop(sample, "user.username_exists", "error", false); // If an error occurs, assume username doesn't exist
     }
 
     public boolean createUser(String username, String password) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         String sql = "INSERT INTO User (username, password) VALUES (?, ?)";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = writeDataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
             pstmt.setString(2, password);
             pstmt.executeUpdate();
-            return true; // Return true if insertion is successful
+            return stop(sample, "user.create", "success", true); // Return true if insertion is successful
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not create user {}", username, e);
         }
 
-        return false; // Return false if an error occurs
+        return stop(sample, "user.create", "error", false); // Return false if an error occurs
     }
 
     public Long createUserAndGetId(String username, String password) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         String sqlInsert = "INSERT INTO User (username, password) VALUES (?, ?)";
         String sqlSelect = "SELECT userId FROM User WHERE username = ?";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
+        // Both statements run on the writer so the select sees the row it just inserted
+        try (Connection conn = writeDataSource.getConnection()) {
             // Insert the new user
             try (PreparedStatement pstmtInsert = conn.prepareStatement(sqlInsert)) {
                 pstmtInsert.setString(1, username);
@@ -64,21 +84,23 @@ public class UserService {
                 pstmtSelect.setString(1, username);
                 try (ResultSet rs = pstmtSelect.executeQuery()) {
                     if (rs.next()) {
-                        return rs.getLong("userId");
+                        return stop(sample, "user.create_and_get_id", "success", rs.getLong("userId"));
                     }
                 }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not create user {}", username, e);
+            return stop(sample, "user.create_and_get_id", "error", null);
         }
 
-        return null; // Return null if user creation fails
+        return stop(sample, "user.create_and_get_id", "success", null); // Return null if user creation fails
     }
 
     public Long getUserIdIfValid(String username, String password) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         String sql = "SELECT userId FROM User WHERE username = ? AND password = ?";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
@@ -86,13 +108,31 @@ public class UserService {
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getLong("userId");
+                    return stop(sample, "user.check_credentials", "success", rs.getLong("userId"));
                 }
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("Could not check credentials of user {}", username, e);
+            return stop(sample, "user.check_credentials", "error", null);
         }
 
-        return null;
+        return stop(sample, "user.check_credentials", "success", null);
+    }
+
+    /**
+     * Records a query as gamefinder.db.queries by query and outcome.
+     *
+     * @param sample  the sample started when the method was entered
+     * @param query   the query's name
+     * @param outcome "success", or "error" when the query failed and a fallback value is returned
+     * @param result  the method's return value
+     * @return the result, unchanged
+     */
+    private <T> T stop(Timer.Sample sample, String query, String outcome, T result) {
+        sample.stop(Timer.builder("gamefinder.db.queries")
+                .description("SQLite queries run by the review and user services")
+                .tags("query", query, "outcome", outcome)
+                .register(meterRegistry));
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,179 @@
+package com.example.demo.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stops calling an upstream service that keeps failing or answering slowly, so callers fail fast (and fall back)
+ * instead of each waiting out a timeout.
+ * <p>
+ * While CLOSED, the outcome of the last calls is kept in a sliding window. Once the window holds enough calls and
+ * too many of them failed, or took longer than the slow call threshold, the breaker trips OPEN and refuses every
+ * call. After the open duration it goes HALF_OPEN and lets a few probe calls through: if they all succeed quickly
+ * it closes again with an empty window, if any fails it opens for another round.
+ * <p>
+ * Callers ask {@link #tryAcquire()} before each call and report the call's outcome afterwards, exactly once.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    // Sliding window over the last calls while closed
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int calls;
+    private int next;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    /**
+     * @param windowSize            number of recent calls the rates are computed over
+     * @param minimumCalls          calls the window needs before the breaker may trip
+     * @param failureRateThreshold  failed share of the window (0 to 1) that trips the breaker
+     * @param slowCallThreshold     calls taking longer than this count as slow
+     * @param slowCallRateThreshold slow share of the window (0 to 1) that trips the breaker
+     * @param openDuration          how long to refuse calls before probing
+     * @param halfOpenProbes        probe calls that must succeed to close again
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCallThreshold,
+                          double slowCallRateThreshold, Duration openDuration, int halfOpenProbes) {
+        this.failed = new boolean[Math.max(1, windowSize)];
+        this.slow = new boolean[failed.length];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, failed.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    }
+
+    /**
+     * Asks whether a call may go ahead. When it may, its outcome must be reported with {@link #onSuccess},
+     * {@link #onError} or {@link #onIgnored}.
+     *
+     * @return false if the breaker is open, or half open with all its probes already out
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeSuccesses = 0;
+        }
+        if (state == State.CLOSED || (state == State.HALF_OPEN && probesInFlight < halfOpenProbes)) {
+            if (state == State.HALF_OPEN) {
+                probesInFlight++;
+            }
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Reports a call that got an answer.
+     *
+     * @param duration how long the call took
+     */
+    public void onSuccess(Duration duration) {
+        record(false, duration.toNanos() > slowCallNanos);
+    }
+
+    /**
+     * Reports a call that failed in a way that says the upstream is unhealthy.
+     */
+    public void onError() {
+        record(true, false);
+    }
+
+    /**
+     * Reports a permitted call that was never sent, or failed for reasons of its own; it doesn't count either way.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probesInFlight = Math.max(0, probesInFlight - 1);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of calls refused so far
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of times the breaker has opened
+     */
+    public long getTripCount() {
+        return trips.sum();
+    }
+
+    private synchronized void record(boolean failure, boolean slowCall) {
+        switch (state) {
+            case HALF_OPEN -> {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+                if (failure || slowCall) {
+                    open();
+                } else if (++probeSuccesses >= halfOpenProbes) {
+                    close();
+                }
+            }
+            case CLOSED -> {
+                if (calls == failed.length) {
+                    failures -= failed[next] ? 1 : 0;
+                    slowCalls -= slow[next] ? 1 : 0;
+                } else {
+                    calls++;
+                }
+                failed[next] = failure;
+                slow[next] = slowCall;
+                failures += failure ? 1 : 0;
+                slowCalls += slowCall ? 1 : 0;
+                next = (next + 1) % failed.length;
+
+                if (calls >= minimumCalls && ((double) failures / calls >= failureRateThreshold
+                        || (double) slowCalls / calls >= slowCallRateThreshold)) {
+                    open();
+                }
+            }
+            case OPEN -> {
+                // A call from before the breaker opened; the breaker has already made up its mind
+            }
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        trips.increment();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        next = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only dictionary that gives each distinct name (a genre, platform or company) a small int id, so
+ * games can hold ids instead of their own copies of the names.
+ * <p>
+ * Ids are dense, starting at 0, and never change. Lookups don't lock; only adding a new name does.
+ * A dictionary can also intern whole id lists, so games with the same genres share one array.
+ */
+public final class FacetDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<IdList, int[]> idLists;
+    private volatile String[] names = new String[64];
+    private int size;
+
+    /**
+     * @param shareIdLists whether {@link #encode} should hand out one shared array per distinct id list; worth it
+     *                     when few combinations repeat across many games, like genres and platforms
+     */
+    public FacetDictionary(boolean shareIdLists) {
+        this.idLists = shareIdLists ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * @param name a name
+     * @return the id of the name, adding it if it is new
+     */
+    public int id(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : add(name);
+    }
+
+    /**
+     * @param id an id returned by this dictionary
+     * @return the name with that id
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return the number of names in the dictionary
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    /**
+     * Encodes names as ids, keeping their order.
+     *
+     * @param names the names to encode
+     * @return their ids; do not modify, the array may be shared
+     */
+    public int[] encode(List<String> names) {
+        int[] encoded = new int[names.size()];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = id(names.get(i));
+        }
+        return idLists == null ? encoded : idLists.computeIfAbsent(new IdList(encoded), IdList::ids);
+    }
+
+    /**
+     * Joins the names of some ids the way ResultSetMapper joins names from IGDB.
+     *
+     * @param encoded ids returned by {@link #encode}
+     * @return the comma-separated names, or "Unknown" if there are none
+     */
+    public String join(int[] encoded) {
+        if (encoded.length == 0) {
+            return "Unknown";
+        }
+        String[] current = names;
+        StringBuilder joined = new StringBuilder(current[encoded[0]]);
+        for (int i = 1; i < encoded.length; i++) {
+            joined.append(", ").append(current[encoded[i]]);
+        }
+        return joined.toString();
+    }
+
+    /**
+     * Looks up names without adding them; a name nobody has used has no games to match.
+     *
+     * @param names the names to look up
+     * @return the ids of the names that are in the dictionary, sorted
+     */
+    public int[] lookup(Collection<String> names) {
+        return names.stream().map(ids::get).filter(id -> id != null).mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * @param encoded ids of one game
+     * @param wanted  sorted ids from {@link #lookup}
+     * @return true if any of the ids is wanted
+     */
+    public static boolean containsAny(int[] encoded, int[] wanted) {
+        for (int id : encoded) {
+            if (Arrays.binarySearch(wanted, id) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized int add(String name) {
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = size++;
+        String[] current = names;
+        if (id == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = name;
+        names = current; // Published before the id, so anyone holding the id can read the name
+        ids.put(name, id);
+        return id;
+    }
+
+    private record IdList(int[] ids) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IdList list && Arrays.equals(ids, list.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(ids);
+        }
+    }
+}
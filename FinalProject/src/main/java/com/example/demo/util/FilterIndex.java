@@ -0,0 +1,354 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable columnar index for filtering documents (games) by facet values, a rating band and a release day band.
+ * <p>
+ * Every value of every facet has a bitmap of the documents tagged with it, so "any of these genres" is an OR of
+ * a few bitmaps and combining filters is an AND, 64 documents per machine word. Ratings and release days are
+ * kept as sorted primitive arrays next to the documents they belong to, so a band is two binary searches and
+ * then setting the bits of one contiguous run. Counting the documents of a result with each facet value is a
+ * popcount of two bitmaps per value.
+ * <p>
+ * Bitmaps are long[] of {@link #words()} words, bit {@code doc % 64} of word {@code doc / 64}. Methods returning one
+ * hand out a new array the caller may modify. Build with {@link Builder}; a built index can be shared between threads.
+ */
+public final class FilterIndex {
+
+    /**
+     * Release day of documents without a release date.
+     */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final int size;
+    private final Map<String, Facet> facets;
+    private final double[] sortedRatings;
+    private final int[] docsByRating;
+    private final int[] sortedDays;
+    private final int[] docsByDay;
+
+    private FilterIndex(int size, Map<String, Facet> facets, double[] ratings, int[] days) {
+        this.size = size;
+        this.facets = facets;
+
+        Integer[] docs = new Integer[size];
+        for (int doc = 0; doc < size; doc++) {
+            docs[doc] = doc;
+        }
+        this.docsByRating = Arrays.stream(docs).sorted(Comparator.comparingDouble(doc -> ratings[doc]))
+                .mapToInt(Integer::intValue).toArray();
+        this.sortedRatings = Arrays.stream(docsByRating).mapToDouble(doc -> ratings[doc]).toArray();
+        this.docsByDay = Arrays.stream(docs).filter(doc -> days[doc] != NO_DAY).sorted(Comparator.comparingInt(doc -> days[doc]))
+                .mapToInt(Integer::intValue).toArray();
+        this.sortedDays = Arrays.stream(docsByDay).map(doc -> days[doc]).toArray();
+    }
+
+    /**
+     * @return the number of documents
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the length of this index's bitmaps
+     */
+    public int words() {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * @return a bitmap of every document
+     */
+    public long[] all() {
+        long[] bits = new long[words()];
+        Arrays.fill(bits, -1L);
+        if ((size & 63) != 0) {
+            bits[bits.length - 1] = (1L << (size & 63)) - 1;
+        }
+        return bits;
+    }
+
+    /**
+     * @param facet  a facet name passed to the builder
+     * @param values the wanted values; unknown ones match nothing
+     * @return a bitmap of the documents tagged with any of the values
+     */
+    public long[] anyOf(String facet, Collection<String> values) {
+        long[] bits = new long[words()];
+        Facet index = facets.get(facet);
+        if (index == null) {
+            return bits;
+        }
+        for (String value : values) {
+            Integer id = index.ids().get(value);
+            if (id != null) {
+                long[] valueBits = index.bitmaps()[id];
+                for (int word = 0; word < bits.length; word++) {
+                    bits[word] |= valueBits[word];
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @param min lowest rating to include
+     * @param max highest rating to include
+     * @return a bitmap of the documents rated within the band
+     */
+    public long[] ratingBetween(double min, double max) {
+        int from = lowerBound(sortedRatings, min);
+        int to = upperBound(sortedRatings, max);
+        return bitsOf(docsByRating, from, to);
+    }
+
+    /**
+     * @param from first epoch day to include
+     * @param to   last epoch day to include
+     * @return a bitmap of the documents released within the band; documents without a release day never match
+     */
+    public long[] releasedBetween(int from, int to) {
+        int start = Arrays.binarySearch(sortedDays, 0, sortedDays.length, from);
+        int end = Arrays.binarySearch(sortedDays, 0, sortedDays.length, to);
+        return bitsOf(docsByDay, lowerBound(sortedDays, from, start), upperBound(sortedDays, to, end));
+    }
+
+    /**
+     * Counts, for every value of a facet, the documents of a result tagged with it.
+     *
+     * @param facet a facet name passed to the builder
+     * @param bits  the result
+     * @return value to count, in first-seen order, leaving out values with no documents in the result
+     */
+    public Map<String, Integer> counts(String facet, long[] bits) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        Facet index = facets.get(facet);
+        if (index == null) {
+            return counts;
+        }
+        for (int id = 0; id < index.values().length; id++) {
+            long[] valueBits = index.bitmaps()[id];
+            int count = 0;
+            for (int word = 0; word < bits.length; word++) {
+                count += Long.bitCount(bits[word] & valueBits[word]);
+            }
+            if (count > 0) {
+                counts.put(index.values()[id], count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Intersects two bitmaps into the first.
+     *
+     * @param bits  the bitmap to narrow down
+     * @param other the bitmap to intersect with
+     * @return bits
+     */
+    public static long[] and(long[] bits, long[] other) {
+        for (int word = 0; word < bits.length; word++) {
+            bits[word] &= other[word];
+        }
+        return bits;
+    }
+
+    /**
+     * @param bits a bitmap
+     * @return the number of documents in it
+     */
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @param bits a bitmap
+     * @param doc  a document
+     * @return true if the document is in the bitmap
+     */
+    public static boolean contains(long[] bits, int doc) {
+        return (bits[doc >>> 6] & (1L << doc)) != 0;
+    }
+
+    /**
+     * Takes one page of a result in a precomputed sort order, walking the order from a starting position and
+     * keeping only documents in the result. The walk stops as soon as the page is full, so the first pages of
+     * a large result cost little however many documents match.
+     *
+     * @param bits       the result
+     * @param order      every document, in sort order
+     * @param from       position in the order to start at; when descending, the walk goes down from from - 1
+     * @param descending whether to walk the order backwards
+     * @param offset     number of matching documents to skip
+     * @param limit      maximum number of documents to return
+     * @return the documents of the page, in walk order
+     */
+    public static int[] select(long[] bits, int[] order, int from, boolean descending, int offset, int limit) {
+        int[] page = new int[limit];
+        int found = 0;
+        int skipped = 0;
+        int step = descending ? -1 : 1;
+        for (int i = descending ? from - 1 : from; i >= 0 && i < order.length && found < limit; i += step) {
+            if (contains(bits, order[i]) && skipped++ >= offset) {
+                page[found++] = order[i];
+            }
+        }
+        return Arrays.copyOf(page, found);
+    }
+
+    private long[] bitsOf(int[] docs, int from, int to) {
+        long[] bits = new long[words()];
+        for (int i = from; i < to; i++) {
+            bits[docs[i] >>> 6] |= 1L << docs[i];
+        }
+        return bits;
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First position holding the value or more, given where binarySearch found it (or would insert it).
+     */
+    private static int lowerBound(int[] sorted, int value, int found) {
+        if (found < 0) {
+            return -found - 1;
+        }
+        while (found > 0 && sorted[found - 1] == value) {
+            found--;
+        }
+        return found;
+    }
+
+    /**
+     * First position holding more than the value, given where binarySearch found it (or would insert it).
+     */
+    private static int upperBound(int[] sorted, int value, int found) {
+        if (found < 0) {
+            return -found - 1;
+        }
+        while (found < sorted.length && sorted[found] == value) {
+            found++;
+        }
+        return found;
+    }
+
+    private record Facet(String[] values, Map<String, Integer> ids, long[][] bitmaps) {
+    }
+
+    /**
+     * Collects documents and builds a {@link FilterIndex}. Not thread-safe; build on one thread, then share the index.
+     */
+    public static final class Builder {
+
+        private final Map<String, Map<String, List<Integer>>> tags = new LinkedHashMap<>();
+        private double[] ratings = new double[1024];
+        private int[] days = new int[1024];
+        private int size;
+
+        /**
+         * @param facets names of the facets documents can be tagged with
+         */
+        public Builder(String... facets) {
+            for (String facet : facets) {
+                tags.put(facet, new LinkedHashMap<>());
+            }
+        }
+
+        /**
+         * Adds a document.
+         *
+         * @param rating     the document's rating
+         * @param releaseDay the document's release date as an epoch day, or {@link #NO_DAY}
+         * @return the document id, the number of documents added before it
+         */
+        public int add(double rating, int releaseDay) {
+            if (size == ratings.length) {
+                ratings = Arrays.copyOf(ratings, size * 2);
+                days = Arrays.copyOf(days, size * 2);
+            }
+            ratings[size] = rating;
+            days[size] = releaseDay;
+            return size++;
+        }
+
+        /**
+         * Tags a document with facet values.
+         *
+         * @param doc    a document id returned by {@link #add}
+         * @param facet  one of the facet names passed to the constructor
+         * @param values the document's values for that facet
+         * @return this builder
+         */
+        public Builder tag(int doc, String facet, Collection<String> values) {
+            Map<String, List<Integer>> facetTags = tags.get(facet);
+            if (facetTags == null) {
+                throw new IllegalArgumentException("Unknown facet " + facet);
+            }
+            for (String value : values) {
+                facetTags.computeIfAbsent(value, v -> new ArrayList<>()).add(doc);
+            }
+            return this;
+        }
+
+        /**
+         * @return an index over every document added so far
+         */
+        public FilterIndex build() {
+            int words = (size + 63) >>> 6;
+            Map<String, Facet> facets = new HashMap<>();
+            tags.forEach((facet, values) -> {
+                String[] names = values.keySet().toArray(new String[0]);
+                Map<String, Integer> ids = new HashMap<>();
+                long[][] bitmaps = new long[names.length][];
+                for (int id = 0; id < names.length; id++) {
+                    ids.put(names[id], id);
+                    bitmaps[id] = new long[words];
+                    for (int doc : values.get(names[id])) {
+                        bitmaps[id][doc >>> 6] |= 1L << doc;
+                    }
+                }
+                facets.put(facet, new Facet(names, ids, bitmaps));
+            });
+            return new FilterIndex(size, facets, Arrays.copyOf(ratings, size), Arrays.copyOf(days, size));
+        }
+    }
+}
@@ -0,0 +1,516 @@
+package com.example.demo.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable full-text index over documents made of a fixed number of weighted text fields.
+ * <p>
+ * Terms live in a sorted dictionary, so exact and prefix lookups are binary searches. Each term has,
+ * per field, a posting list of document ids and term frequencies in parallel int arrays. A query matches
+ * documents containing every query token; the last token also matches as a prefix (search-as-you-type),
+ * and a token with no exact or prefix match falls back to dictionary terms within a small edit distance.
+ * Matches are ranked with BM25, summed over fields by field weight.
+ * <p>
+ * Build with {@link Builder}. A built index is never modified, so it can be shared between threads freely.
+ */
+public final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // How much a prefix or typo match counts compared to an exact term match
+    private static final double PREFIX_WEIGHT = 0.7;
+    private static final double FUZZY_WEIGHT = 0.5;
+
+    // Caps the number of dictionary terms a single query token can expand to
+    private static final int MAX_EXPANSIONS = 64;
+
+    private static final int[] NO_POSTINGS = new int[0];
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final double[] fieldWeights;
+    private final int documentCount;
+    private final String[] terms;
+    private final int[] documentFrequencies;
+    private final int[][][] postingDocs;
+    private final int[][][] postingFreqs;
+    private final int[][] fieldLengths;
+    private final double[] averageFieldLengths;
+
+    private InvertedIndex(double[] fieldWeights, int documentCount, String[] terms, int[] documentFrequencies,
+                          int[][][] postingDocs, int[][][] postingFreqs, int[][] fieldLengths) {
+        this.fieldWeights = fieldWeights;
+        this.documentCount = documentCount;
+        this.terms = terms;
+        this.documentFrequencies = documentFrequencies;
+        this.postingDocs = postingDocs;
+        this.postingFreqs = postingFreqs;
+        this.fieldLengths = fieldLengths;
+        this.averageFieldLengths = new double[fieldWeights.length];
+        for (int field = 0; field < fieldWeights.length; field++) {
+            long total = 0;
+            for (int length : fieldLengths[field]) {
+                total += length;
+            }
+            averageFieldLengths[field] = documentCount == 0 ? 0 : Math.max(1.0, (double) total / documentCount);
+        }
+    }
+
+    /**
+     * Splits text into lowercase, accent-free tokens of letters and digits.
+     *
+     * @param text the text to tokenize, may be null
+     * @return the tokens, in order
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : NON_WORD.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @return the number of distinct terms
+     */
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    /**
+     * Runs a query and returns one page of matching documents, best match first.
+     * Ties are broken by document id, so paging through a query is stable.
+     *
+     * @param query  free text typed by the user
+     * @param limit  maximum number of documents to return
+     * @param offset number of best matches to skip
+     * @return document ids (in the order they were added to the builder, starting at 0)
+     */
+    public int[] search(String query, int limit, int offset) {
+        return search(query, limit, offset, doc -> true);
+    }
+
+    /**
+     * Runs a query and returns one page of the matching documents that also pass a filter, best match first.
+     * Filtering while ranking keeps pages full, unlike filtering a page afterwards.
+     *
+     * @param query  free text typed by the user
+     * @param limit  maximum number of documents to return
+     * @param offset number of best accepted matches to skip
+     * @param accept tests document ids; only accepted documents are returned
+     * @return document ids (in the order they were added to the builder, starting at 0)
+     */
+    public int[] search(String query, int limit, int offset, IntPredicate accept) {
+        List<String> tokens = tokenize(query);
+        int wanted = (int) Math.min((long) offset + limit, documentCount);
+        if (tokens.isEmpty() || wanted <= 0) {
+            return new int[0];
+        }
+
+        double[] scores = new double[documentCount];
+        int[] matchedTokens = new int[documentCount];
+        if (!score(tokens, scores, matchedTokens)) {
+            return new int[0];
+        }
+
+        // Keep only the best offset + limit matches in a min-heap, instead of sorting every match.
+        // Each entry packs the score's float bits in the high half and Integer.MAX_VALUE minus the document id
+        // in the low half, so comparing longs orders by score, then by ascending document id.
+        long[] heap = new long[wanted];
+        int size = 0;
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (matchedTokens[doc] != tokens.size() || !accept.test(doc)) {
+                continue;
+            }
+            // Positive float bit patterns sort in the same order as the floats
+            long entry = (long) Float.floatToIntBits((float) scores[doc]) << 32 | (Integer.MAX_VALUE - doc);
+            if (size < heap.length) {
+                heap[size] = entry;
+                siftUp(heap, size++);
+            } else if (entry > heap[0]) {
+                heap[0] = entry;
+                siftDown(heap, size);
+            }
+        }
+        Arrays.sort(heap, 0, size);
+
+        int[] page = new int[Math.max(0, size - offset)];
+        for (int i = 0; i < page.length; i++) {
+            page[i] = Integer.MAX_VALUE - (int) heap[size - 1 - offset - i]; // Best match sorts last
+        }
+        return page;
+    }
+
+    /**
+     * Counts the documents matching a query.
+     *
+     * @param query free text typed by the user
+     * @return the number of matches
+     */
+    public int count(String query) {
+        return FilterIndex.cardinality(matches(query));
+    }
+
+    /**
+     * Finds every document matching a query, unranked, for combining with {@link FilterIndex} bitmaps.
+     *
+     * @param query free text typed by the user
+     * @return a bitmap of the matching documents, in the {@link FilterIndex} layout
+     */
+    public long[] matches(String query) {
+        long[] bits = new long[(documentCount + 63) >>> 6];
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || documentCount == 0) {
+            return bits;
+        }
+
+        double[] scores = new double[documentCount];
+        int[] matchedTokens = new int[documentCount];
+        if (!score(tokens, scores, matchedTokens)) {
+            return bits;
+        }
+
+        for (int doc = 0; doc < documentCount; doc++) {
+            if (matchedTokens[doc] == tokens.size()) {
+                bits[doc >>> 6] |= 1L << doc;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Lists dictionary terms starting with a prefix, most widely used first.
+     *
+     * @param prefix the start of a word
+     * @param limit  maximum number of terms to return
+     * @return the matching terms
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> completions = new ArrayList<>();
+        for (int term : prefixTerms(tokens.get(tokens.size() - 1), limit)) {
+            completions.add(terms[term]);
+        }
+        return completions;
+    }
+
+    /**
+     * Adds each document's BM25 score into scores, and counts in matchedTokens how many query tokens in a row
+     * it matched; documents matching every token end up with matchedTokens equal to the token count.
+     *
+     * @return false if some token matched nothing, so no document can match
+     */
+    private boolean score(List<String> tokens, double[] scores, int[] matchedTokens) {
+        for (int t = 0; t < tokens.size(); t++) {
+            Map<Integer, Double> expansions = expand(tokens.get(t), t == tokens.size() - 1);
+            if (expansions.isEmpty()) {
+                return false; // Every token has to match
+            }
+
+            for (Map.Entry<Integer, Double> expansion : expansions.entrySet()) {
+                int term = expansion.getKey();
+                double idf = Math.log(1 + (documentCount - documentFrequencies[term] + 0.5) / (documentFrequencies[term] + 0.5));
+
+                for (int field = 0; field < fieldWeights.length; field++) {
+                    int[] docs = postingDocs[field][term];
+                    int[] freqs = postingFreqs[field][term];
+                    double weight = expansion.getValue() * fieldWeights[field] * idf;
+
+                    for (int i = 0; i < docs.length; i++) {
+                        int doc = docs[i];
+                        if (matchedTokens[doc] < t) {
+                            continue; // Missed an earlier token, can no longer match
+                        }
+                        matchedTokens[doc] = t + 1;
+
+                        double norm = 1 - B + B * fieldLengths[field][doc] / averageFieldLengths[field];
+                        scores[doc] += weight * freqs[i] * (K1 + 1) / (freqs[i] + K1 * norm);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            long swap = heap[parent];
+            heap[parent] = heap[index];
+            heap[index] = swap;
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            long swap = heap[smallest];
+            heap[smallest] = heap[index];
+            heap[index] = swap;
+            index = smallest;
+        }
+    }
+
+    /**
+     * Finds the dictionary terms a query token stands for, with the weight each match counts for.
+     */
+    private Map<Integer, Double> expand(String token, boolean prefix) {
+        Map<Integer, Double> expansions = new LinkedHashMap<>();
+
+        int exact = Arrays.binarySearch(terms, token);
+        if (exact >= 0) {
+            expansions.put(exact, 1.0);
+        }
+        if (prefix) {
+            for (int term : prefixTerms(token, MAX_EXPANSIONS)) {
+                expansions.putIfAbsent(term, PREFIX_WEIGHT);
+            }
+        }
+        if (expansions.isEmpty()) {
+            for (int term : fuzzyTerms(token)) {
+                expansions.put(term, FUZZY_WEIGHT);
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * Terms starting with the prefix (excluding the prefix itself), most frequent first, then alphabetically.
+     */
+    private List<Integer> prefixTerms(String prefix, int limit) {
+        List<Integer> matches = new ArrayList<>();
+        for (int term = lowerBound(prefix); term < terms.length && terms[term].startsWith(prefix); term++) {
+            if (terms[term].length() > prefix.length()) {
+                matches.add(term);
+            }
+        }
+
+        matches.sort((a, b) -> Integer.compare(documentFrequencies[b], documentFrequencies[a]));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Terms within one edit (two for long tokens) of the token. Only terms with the same first character are
+     * considered; first-letter typos are rare and this keeps the scan to a small slice of the dictionary.
+     */
+    private List<Integer> fuzzyTerms(String token) {
+        int maxEdits = token.length() < 4 ? 0 : token.length() < 8 ? 1 : 2;
+        List<Integer> matches = new ArrayList<>();
+        if (maxEdits == 0) {
+            return matches;
+        }
+
+        String first = token.substring(0, 1);
+        for (int term = lowerBound(first); term < terms.length && terms[term].startsWith(first); term++) {
+            if (Math.abs(terms[term].length() - token.length()) <= maxEdits
+                    && editDistance(token, terms[term], maxEdits) <= maxEdits) {
+                matches.add(term);
+            }
+        }
+
+        if (matches.size() > MAX_EXPANSIONS) {
+            matches.sort((a, b) -> Integer.compare(documentFrequencies[b], documentFrequencies[a]));
+            return matches.subList(0, MAX_EXPANSIONS);
+        }
+        return matches;
+    }
+
+    private int lowerBound(String key) {
+        int index = Arrays.binarySearch(terms, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions), giving up
+     * with max + 1 as soon as every alignment is already over max.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Collects documents and builds an {@link InvertedIndex}. Not thread-safe; build on one thread, then share the index.
+     */
+    public static final class Builder {
+
+        private final double[] fieldWeights;
+        private final Map<String, TermPostings> postings = new HashMap<>();
+        private final List<int[]> lengths = new ArrayList<>();
+
+        /**
+         * @param fieldWeights relative weight of each field, in the order field values are passed to {@link #add}
+         */
+        public Builder(double... fieldWeights) {
+            this.fieldWeights = fieldWeights.clone();
+        }
+
+        /**
+         * Adds a document. Document ids are assigned in the order documents are added, starting at 0.
+         *
+         * @param fieldValues the text of each field, null for an empty field
+         * @return the id of the added document
+         */
+        public int add(String... fieldValues) {
+            if (fieldValues.length != fieldWeights.length) {
+                throw new IllegalArgumentException("Expected " + fieldWeights.length + " fields, got " + fieldValues.length);
+            }
+
+            int doc = lengths.size();
+            int[] docLengths = new int[fieldWeights.length];
+            for (int field = 0; field < fieldValues.length; field++) {
+                List<String> tokens = tokenize(fieldValues[field]);
+                docLengths[field] = tokens.size();
+
+                Map<String, Integer> frequencies = new HashMap<>();
+                for (String token : tokens) {
+                    frequencies.merge(token, 1, Integer::sum);
+                }
+                for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+                    postings.computeIfAbsent(frequency.getKey(), term -> new TermPostings(fieldWeights.length))
+                            .add(field, doc, frequency.getValue());
+                }
+            }
+            lengths.add(docLengths);
+            return doc;
+        }
+
+        /**
+         * @return an index over every document added so far
+         */
+        public InvertedIndex build() {
+            String[] terms = postings.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+
+            int fields = fieldWeights.length;
+            int[] documentFrequencies = new int[terms.length];
+            int[][][] postingDocs = new int[fields][terms.length][];
+            int[][][] postingFreqs = new int[fields][terms.length][];
+            for (int term = 0; term < terms.length; term++) {
+                TermPostings termPostings = postings.get(terms[term]);
+                documentFrequencies[term] = termPostings.documentFrequency;
+                for (int field = 0; field < fields; field++) {
+                    int size = termPostings.sizes[field];
+                    postingDocs[field][term] = size == 0 ? NO_POSTINGS : Arrays.copyOf(termPostings.docs[field], size);
+                    postingFreqs[field][term] = size == 0 ? NO_POSTINGS : Arrays.copyOf(termPostings.freqs[field], size);
+                }
+            }
+
+            int[][] fieldLengths = new int[fields][lengths.size()];
+            for (int doc = 0; doc < lengths.size(); doc++) {
+                for (int field = 0; field < fields; field++) {
+                    fieldLengths[field][doc] = lengths.get(doc)[field];
+                }
+            }
+
+            return new InvertedIndex(fieldWeights, lengths.size(), terms, documentFrequencies,
+                    postingDocs, postingFreqs, fieldLengths);
+        }
+    }
+
+    /**
+     * Growable per-field posting lists for one term while building. Documents arrive in id order, so lists stay sorted.
+     */
+    private static final class TermPostings {
+
+        private final int[][] docs;
+        private final int[][] freqs;
+        private final int[] sizes;
+        private int documentFrequency;
+        private int lastDoc = -1;
+
+        TermPostings(int fields) {
+            docs = new int[fields][];
+            freqs = new int[fields][];
+            sizes = new int[fields];
+        }
+
+        void add(int field, int doc, int frequency) {
+            if (docs[field] == null) {
+                docs[field] = new int[2];
+                freqs[field] = new int[2];
+            } else if (sizes[field] == docs[field].length) {
+                docs[field] = Arrays.copyOf(docs[field], sizes[field] * 2);
+                freqs[field] = Arrays.copyOf(freqs[field], sizes[field] * 2);
+            }
+            docs[field][sizes[field]] = doc;
+            freqs[field][sizes[field]] = frequency;
+            sizes[field]++;
+
+            if (doc != lastDoc) {
+                documentFrequency++;
+                lastDoc = doc;
+            }
+        }
+    }
+}
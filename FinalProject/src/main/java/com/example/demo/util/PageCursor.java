@@ -0,0 +1,134 @@
+package com.example.demo.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque position in a sorted list of games, handed to clients as an URL-safe string.
+ * <p>
+ * A keyset cursor holds the sort key and ID of the last game returned, plus the IDs of every game already
+ * returned with that same sort key, so the next page starts right after it no matter how deep it is.
+ * Orderings without a usable sort key (search relevance, sorting by company) get an offset cursor instead.
+ */
+public final class PageCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String sortBy;
+    private final String sortOrder;
+    private final String key;
+    private final long lastId;
+    private final long[] seenIds;
+    private final int offset;
+
+    private PageCursor(String sortBy, String sortOrder, String key, long lastId, long[] seenIds, int offset) {
+        this.sortBy = sortBy;
+        this.sortOrder = sortOrder;
+        this.key = key;
+        this.lastId = lastId;
+        this.seenIds = seenIds;
+        this.offset = offset;
+    }
+
+    /**
+     * @param sortBy    sorting field the cursor belongs to
+     * @param sortOrder sorting order the cursor belongs to
+     * @param key       sort key of the last game returned
+     * @param lastId    ID of the last game returned
+     * @param seenIds   IDs of every game returned so far whose sort key equals key
+     * @return a cursor positioned after the last game
+     */
+    public static PageCursor keyset(String sortBy, String sortOrder, String key, long lastId, long[] seenIds) {
+        return new PageCursor(sortBy, sortOrder, Objects.requireNonNull(key), lastId, seenIds.clone(), 0);
+    }
+
+    /**
+     * @param sortBy    sorting field the cursor belongs to
+     * @param sortOrder sorting order the cursor belongs to
+     * @param offset    number of games returned so far
+     * @return a cursor positioned after that many games
+     */
+    public static PageCursor offset(String sortBy, String sortOrder, int offset) {
+        return new PageCursor(sortBy, sortOrder, null, 0, new long[0], offset);
+    }
+
+    /**
+     * Reads a cursor previously produced by {@link #encode()}.
+     *
+     * @param encoded the cursor string sent by the client
+     * @return the cursor
+     * @throws IllegalArgumentException if the string is not a cursor
+     */
+    public static PageCursor decode(String encoded) {
+        try {
+            JsonNode json = MAPPER.readTree(Base64.getUrlDecoder().decode(encoded));
+            long[] seenIds = new long[json.path("seen").size()];
+            for (int i = 0; i < seenIds.length; i++) {
+                seenIds[i] = json.path("seen").get(i).asLong();
+            }
+            String key = json.hasNonNull("key") ? json.get("key").asText() : null;
+            return new PageCursor(json.path("sortBy").asText(), json.path("sortOrder").asText(), key,
+                    json.path("id").asLong(), seenIds, Math.max(0, json.path("offset").asInt()));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * @return the cursor as an URL-safe string
+     */
+    public String encode() {
+        ObjectNode json = MAPPER.createObjectNode()
+                .put("sortBy", sortBy)
+                .put("sortOrder", sortOrder);
+        if (isKeyset()) {
+            json.put("key", key).put("id", lastId);
+            ArrayNode seen = json.putArray("seen");
+            Arrays.stream(seenIds).forEach(seen::add);
+        } else {
+            json.put("offset", offset);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Whether this cursor was issued for the given ordering; a cursor is only valid with the sort it came from.
+     *
+     * @param sortBy    sorting field of the request
+     * @param sortOrder sorting order of the request
+     * @return true if the orderings match
+     */
+    public boolean matches(String sortBy, String sortOrder) {
+        return this.sortBy.equals(sortBy) && this.sortOrder.equalsIgnoreCase(sortOrder);
+    }
+
+    /**
+     * @return true for a keyset cursor, false for an offset cursor
+     */
+    public boolean isKeyset() {
+        return key != null;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public long[] getSeenIds() {
+        return seenIds.clone();
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.demo.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable top-k completion index over short texts (game names), each with an id and a popularity weight.
+ * <p>
+ * Every word start of every text is an entry, so "witch" completes "The Witcher 3". Entries are kept sorted
+ * by the normalized text from that word on, stored as (text, offset) int pairs rather than substrings, so the
+ * completions of a prefix form one contiguous range found with two binary searches. A max segment tree over
+ * the entry weights then yields the heaviest entries of that range one at a time in O(log n) each, without
+ * scanning the range. That answers the same queries as a trie with a top-k list on every node, in two ints
+ * per entry plus the tree.
+ * <p>
+ * Build with {@link Builder}. A built index is never modified, so it can be shared between threads freely.
+ */
+public final class PrefixIndex {
+
+    private final long[] ids;
+    private final String[] texts;
+    private final String[] keys;
+    private final int[] weights;
+    private final long[] sortedIds;
+
+    private final int[] entryText;
+    private final int[] entryOffset;
+    private final int capacity;
+    private final int[] tree;
+
+    private PrefixIndex(long[] ids, String[] texts, String[] keys, int[] weights) {
+        this.ids = ids;
+        this.texts = texts;
+        this.keys = keys;
+        this.weights = weights;
+        this.sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+
+        List<Integer> textOfEntry = new ArrayList<>();
+        List<Integer> offsetOfEntry = new ArrayList<>();
+        for (int text = 0; text < keys.length; text++) {
+            String key = keys[text];
+            for (int offset = 0; offset < key.length(); offset++) {
+                if (offset == 0 || key.charAt(offset - 1) == ' ') {
+                    textOfEntry.add(text);
+                    offsetOfEntry.add(offset);
+                }
+            }
+        }
+
+        Integer[] order = new Integer[textOfEntry.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareEntries(textOfEntry.get(a), offsetOfEntry.get(a), textOfEntry.get(b), offsetOfEntry.get(b)));
+
+        entryText = new int[order.length];
+        entryOffset = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            entryText[i] = textOfEntry.get(order[i]);
+            entryOffset[i] = offsetOfEntry.get(order[i]);
+        }
+
+        // Leaves hold entry indexes, every inner node the heavier of its two children
+        capacity = Integer.highestOneBit(Math.max(1, order.length - 1)) << 1;
+        tree = new int[2 * capacity];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < order.length; i++) {
+            tree[capacity + i] = i;
+        }
+        for (int node = capacity - 1; node > 0; node--) {
+            tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Normalizes text the way the index compares it: lowercase, no accents, words separated by single spaces.
+     *
+     * @param text the text to normalize
+     * @return the normalized text, empty if it has no letters or digits
+     */
+    public static String normalize(String text) {
+        return String.join(" ", InvertedIndex.tokenize(text));
+    }
+
+    /**
+     * @return the number of indexed texts
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @param id an id passed to {@link Builder#add}
+     * @return true if a text with this id is indexed
+     */
+    public boolean contains(long id) {
+        return Arrays.binarySearch(sortedIds, id) >= 0;
+    }
+
+    /**
+     * Finds the heaviest texts with a word starting with the prefix; the last word of the prefix may be partial.
+     *
+     * @param prefix the text typed so far
+     * @param limit  maximum number of completions
+     * @param skip   ids to leave out of the results
+     * @return completions with distinct ids, heaviest first, ties in alphabetical order of the text from the matched word on
+     */
+    public List<Completion> complete(String prefix, int limit, LongPredicate skip) {
+        String key = normalize(prefix);
+        List<Completion> completions = new ArrayList<>();
+        if (key.isEmpty() || limit <= 0) {
+            return completions;
+        }
+
+        int from = boundary(key, false);
+        int to = boundary(key, true);
+        if (from >= to) {
+            return completions;
+        }
+
+        // Each queued range carries its heaviest entry; taking one splits its range in two
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(Comparator.comparingInt((int[] range) -> -entryWeight(range[2]))
+                .thenComparingInt(range -> range[2]));
+        ranges.add(new int[]{from, to, heaviest(from, to)});
+        Set<Integer> seen = new HashSet<>();
+
+        while (!ranges.isEmpty() && completions.size() < limit) {
+            int[] range = ranges.poll();
+            int entry = range[2];
+            int text = entryText[entry];
+            if (seen.add(text) && !skip.test(ids[text])) {
+                completions.add(new Completion(ids[text], texts[text], weights[text]));
+            }
+            if (range[0] < entry) {
+                ranges.add(new int[]{range[0], entry, heaviest(range[0], entry)});
+            }
+            if (entry + 1 < range[1]) {
+                ranges.add(new int[]{entry + 1, range[1], heaviest(entry + 1, range[1])});
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * First entry that starts with the key (or sorts after it), or with after set, the first entry that sorts after
+     * every entry starting with the key.
+     */
+    private int boundary(String key, boolean after) {
+        int low = 0;
+        int high = entryText.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int compared = comparePrefix(middle, key);
+            if (compared < 0 || (after && compared == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the start of an entry with a key: 0 if the entry starts with the key.
+     */
+    private int comparePrefix(int entry, String key) {
+        String text = keys[entryText[entry]];
+        int offset = entryOffset[entry];
+        int length = Math.min(text.length() - offset, key.length());
+        for (int i = 0; i < length; i++) {
+            int compared = text.charAt(offset + i) - key.charAt(i);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return text.length() - offset < key.length() ? -1 : 0;
+    }
+
+    private int compareEntries(int textA, int offsetA, int textB, int offsetB) {
+        String a = keys[textA];
+        String b = keys[textB];
+        int length = Math.min(a.length() - offsetA, b.length() - offsetB);
+        for (int i = 0; i < length; i++) {
+            int compared = a.charAt(offsetA + i) - b.charAt(offsetB + i);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        int compared = Integer.compare(a.length() - offsetA, b.length() - offsetB);
+        return compared != 0 ? compared : Integer.compare(textA, textB);
+    }
+
+    private int heaviest(int from, int to) {
+        int best = -1;
+        for (int low = from + capacity, high = to + capacity; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                best = heavier(best, tree[low++]);
+            }
+            if ((high & 1) == 1) {
+                best = heavier(best, tree[--high]);
+            }
+        }
+        return best;
+    }
+
+    private int heavier(int a, int b) {
+        if (a < 0 || b < 0) {
+            return a < 0 ? b : a;
+        }
+        int compared = Integer.compare(entryWeight(a), entryWeight(b));
+        return compared > 0 || (compared == 0 && a < b) ? a : b;
+    }
+
+    private int entryWeight(int entry) {
+        return weights[entryText[entry]];
+    }
+
+    /**
+     * One completion: the id, original text and weight passed to {@link Builder#add}.
+     */
+    public record Completion(long id, String text, int weight) {
+    }
+
+    /**
+     * Collects texts and builds a {@link PrefixIndex}. Not thread-safe; build on one thread, then share the index.
+     */
+    public static final class Builder {
+
+        private final List<Long> ids = new ArrayList<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> weights = new ArrayList<>();
+
+        /**
+         * Adds a text. Texts without letters or digits are ignored.
+         *
+         * @param id     identifies the text in completions; add each id once
+         * @param text   the text to complete, e.g. a game name
+         * @param weight popularity; heavier texts are completed first
+         * @return this builder
+         */
+        public Builder add(long id, String text, int weight) {
+            String key = text == null ? "" : normalize(text);
+            if (!key.isEmpty()) {
+                ids.add(id);
+                texts.add(text);
+                keys.add(key);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        /**
+         * Adds every text of an existing index.
+         *
+         * @param index the index to copy from
+         * @param skip  ids to leave out
+         * @return this builder
+         */
+        public Builder addAll(PrefixIndex index, LongPredicate skip) {
+            for (int text = 0; text < index.ids.length; text++) {
+                if (!skip.test(index.ids[text])) {
+                    ids.add(index.ids[text]);
+                    texts.add(index.texts[text]);
+                    keys.add(index.keys[text]);
+                    weights.add(index.weights[text]);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @return an index over every text added so far
+         */
+        public PrefixIndex build() {
+            return new PrefixIndex(ids.stream().mapToLong(Long::longValue).toArray(), texts.toArray(new String[0]),
+                    keys.toArray(new String[0]), weights.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.demo.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Paces requests to an upstream service that enforces a request rate. Every request first takes a {@link Permit},
+ * which needs both a token from a token bucket (the rate) and a free slot under a concurrency limit (requests in
+ * flight at once).
+ * <p>
+ * The concurrency limit adapts, additive increase and multiplicative decrease: it grows by about one per limit's
+ * worth of successes, and halves when the upstream signals overload (HTTP 429, timeouts), which also empties the
+ * bucket. Latency alone is not taken as a signal, since one game and a page of 500 take very different times.
+ * <p>
+ * Requests that can't go right away wait in a queue, higher priorities first. Each priority has a maximum wait;
+ * a request that would wait longer, judging by the rate and the requests ahead of it, is shed right away instead
+ * of queueing, and one whose wait runs out in the queue is shed then. Shed requests fail with
+ * {@link RejectedExecutionException}, so the caller can fall back at once rather than time out later.
+ */
+public class RequestGovernor {
+
+    /**
+     * Request priorities, highest first.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    /**
+     * How a permitted request went, as far as upstream capacity is concerned.
+     */
+    public enum Outcome {
+        /** The upstream answered. */
+        SUCCESS,
+        /** The upstream is overloaded: rate limited, or too slow to answer in time. */
+        OVERLOADED,
+        /** Failed for another reason; says nothing about capacity. */
+        FAILED
+    }
+
+    private final double ratePerNano;
+    private final double burst;
+    private final int maxConcurrency;
+    private final Map<Priority, Long> maxWaitNanos = new EnumMap<>(Priority.class);
+    private final ScheduledExecutorService timer;
+
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>();
+    private double tokens;
+    private long refilledAt;
+    private double limit;
+    private int inFlight;
+    private long sequence;
+    private ScheduledFuture<?> wakeUp;
+    private long wakeUpAt;
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder overloaded = new LongAdder();
+
+    /**
+     * @param requestsPerSecond the upstream's rate limit
+     * @param burst             tokens the bucket holds, i.e. requests that may go back to back after a quiet spell
+     * @param maxConcurrency    most requests in flight at once; the limit starts halfway up to it
+     * @param maxWait           how long requests of each priority may wait for a permit
+     */
+    public RequestGovernor(double requestsPerSecond, int burst, int maxConcurrency, Map<Priority, Duration> maxWait) {
+        this.ratePerNano = requestsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        for (Priority priority : Priority.values()) {
+            this.maxWaitNanos.put(priority, maxWait.getOrDefault(priority, Duration.ZERO).toNanos());
+        }
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+        this.limit = Math.max(1, this.maxConcurrency / 2);
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-governor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Asks for a permit to send one request.
+     *
+     * @param priority the request's priority
+     * @return a future completed with the permit once the request may go, or exceptionally with a
+     *         {@link RejectedExecutionException} if it was shed. Release the permit when the request is done.
+     */
+    public CompletableFuture<Permit> acquire(Priority priority) {
+        long now = System.nanoTime();
+        long maxWait = maxWaitNanos.get(priority);
+        Permit immediate = null;
+        Waiter waiter = null;
+
+        synchronized (this) {
+            refill(now);
+            if (queue.isEmpty() && inFlight < (int) limit && tokens >= 1) {
+                immediate = grant();
+            } else if (estimatedWait(priority) <= maxWait) {
+                waiter = new Waiter(priority, sequence++, now + maxWait, new CompletableFuture<>());
+                queue.add(waiter);
+            }
+        }
+
+        if (immediate != null) {
+            return CompletableFuture.completedFuture(immediate);
+        }
+        if (waiter == null) {
+            shed.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Shed " + priority + " request: queue wait exceeds " + Duration.ofNanos(maxWait)));
+        }
+        dispatch(); // Grants it right away if it is first in line, else schedules the next look at the queue
+        return waiter.permit();
+    }
+
+    /**
+     * Asks for a permit and blocks the calling thread until it is granted. If the thread is interrupted while
+     * waiting, the request gives up its place in the queue, or hands back the permit if it was granted meanwhile,
+     * so the slot isn't lost.
+     *
+     * @param priority the request's priority
+     * @return the permit; release it when the request is done
+     * @throws RejectedExecutionException if the request was shed
+     * @throws InterruptedException       if the thread was interrupted while waiting
+     */
+    public Permit await(Priority priority) throws InterruptedException {
+        CompletableFuture<Permit> permit = acquire(priority);
+        try {
+            return permit.get();
+        } catch (ExecutionException e) {
+            throw (RejectedExecutionException) e.getCause(); // The only way acquiring fails
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+                permit.join().release(Outcome.FAILED); // Granted before we could cancel
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the current concurrency limit
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return the number of permits held right now
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of requests waiting for a permit
+     */
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of permits granted so far
+     */
+    public long getPermittedCount() {
+        return permitted.sum();
+    }
+
+    /**
+     * @return the number of requests shed so far, at admission or after waiting
+     */
+    public long getShedCount() {
+        return shed.sum();
+    }
+
+    /**
+     * @return the number of requests that ended with the upstream overloaded
+     */
+    public long getOverloadedCount() {
+        return overloaded.sum();
+    }
+
+    /**
+     * Permission to send one request. Must be released exactly once; later releases are ignored.
+     */
+    public final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /**
+         * Frees the permit's slot and lets the outcome adjust the concurrency limit.
+         *
+         * @param outcome how the request went
+         */
+        public void release(Outcome outcome) {
+            if (released.compareAndSet(false, true)) {
+                RequestGovernor.this.release(outcome);
+            }
+        }
+    }
+
+    private void release(Outcome outcome) {
+        synchronized (this) {
+            inFlight--;
+            switch (outcome) {
+                case OVERLOADED -> {
+                    overloaded.increment();
+                    limit = Math.max(1, limit / 2);
+                    tokens = Math.min(tokens, 0); // Back off for a whole refill before the next request
+                }
+                case SUCCESS -> limit = Math.min(maxConcurrency, limit + 1 / limit);
+                case FAILED -> {
+                }
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Grants permits to waiting requests while tokens and slots allow, and sheds the ones whose wait ran out.
+     * Futures are completed outside the lock, since their callbacks may send requests.
+     */
+    private void dispatch() {
+        long now = System.nanoTime();
+        List<Waiter> granted = new ArrayList<>();
+        List<Waiter> expired = new ArrayList<>();
+        List<Permit> permits = new ArrayList<>();
+
+        synchronized (this) {
+            refill(now);
+            for (Iterator<Waiter> waiters = queue.iterator(); waiters.hasNext(); ) {
+                Waiter waiter = waiters.next();
+                if (waiter.deadline() - now < 0) {
+                    waiters.remove();
+                    expired.add(waiter);
+                }
+            }
+            while (!queue.isEmpty() && inFlight < (int) limit && tokens >= 1) {
+                granted.add(queue.poll());
+                permits.add(grant());
+            }
+            if (!queue.isEmpty()) {
+                scheduleWakeUp(now);
+            }
+        }
+
+        for (Waiter waiter : expired) {
+            shed.increment();
+            waiter.permit().completeExceptionally(new RejectedExecutionException("Shed " + waiter.priority() + " request: waited too long for a permit"));
+        }
+        for (int i = 0; i < granted.size(); i++) {
+            if (!granted.get(i).permit().complete(permits.get(i))) {
+                permits.get(i).release(Outcome.FAILED); // Cancelled meanwhile
+            }
+        }
+    }
+
+    private Permit grant() {
+        tokens--;
+        inFlight++;
+        permitted.increment();
+        return new Permit();
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+        refilledAt = now;
+    }
+
+    /**
+     * Rough time until a new request of a priority gets a token: one token interval for each request queued
+     * ahead of it, less the tokens already in the bucket.
+     */
+    private long estimatedWait(Priority priority) {
+        long ahead = queue.stream().filter(waiter -> waiter.priority().compareTo(priority) <= 0).count();
+        return (long) (Math.max(0, ahead + 1 - tokens) / ratePerNano);
+    }
+
+    /**
+     * Makes sure dispatch runs again by the time the next token arrives, if waiting on one, or the earliest
+     * wait runs out, whichever comes first. Releases run it too, so waiting on a slot needs no timer.
+     */
+    private void scheduleWakeUp(long now) {
+        long next = queue.peek().deadline();
+        for (Waiter waiter : queue) {
+            if (waiter.deadline() - next < 0) {
+                next = waiter.deadline();
+            }
+        }
+        if (tokens < 1) {
+            long nextToken = now + (long) Math.ceil((1 - tokens) / ratePerNano);
+            next = nextToken - next < 0 ? nextToken : next;
+        }
+        // A wake-up that is already due may be the one running this dispatch, so it can't stand in for the next
+        if (wakeUp != null && !wakeUp.isDone() && wakeUpAt - now > 0 && wakeUpAt - next <= 0) {
+            return;
+        }
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+        }
+        wakeUpAt = next;
+        wakeUp = timer.schedule(this::dispatch, Math.max(0, next - now), TimeUnit.NANOSECONDS);
+    }
+
+    private record Waiter(Priority priority, long sequence, long deadline, CompletableFuture<Permit> permit)
+            implements Comparable<Waiter> {
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
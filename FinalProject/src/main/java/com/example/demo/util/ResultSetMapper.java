@@ -1,16 +1,38 @@
 package com.example.demo.util;
 
+import com.example.demo.model.GameProjection;
 import com.example.demo.model.VideoGame;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class ResultSetMapper {
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Static mappers can't be injected, so they time themselves in the global registry Spring Boot publishes to.
+    // Decoding IGDB responses is timed per response and reads the body off the connection as it goes;
+    // mapping SQLite rows is timed per row.
+    private static final Timer IGDB_MAPPING = mappingTimer("igdb");
+    private static final Timer SQLITE_MAPPING = mappingTimer("sqlite");
+
     /**
      * Maps the IGDB API response to a list of VideoGame objects.
      *
@@ -67,6 +89,321 @@ public class ResultSetMapper {
         return videoGames;
     }
 
+    /**
+     * Maps an IGDB API response to a list of VideoGame objects, decoding straight from the response stream.
+     * Produces the same games as {@link #mapApiResponseToVideoGames(JSONArray)} without first buffering
+     * the body into a String and a JSON tree.
+     *
+     * @param in the response body; closed when mapping finishes
+     * @return a list of VideoGame objects
+     * @throws IOException if the stream cannot be read or is not a JSON array
+     */
+    public static List<VideoGame> mapApiResponseToVideoGames(InputStream in) throws IOException {
+        return mapApiResponseToVideoGames(in, GameProjection.DETAIL);
+    }
+
+    /**
+     * Maps an IGDB API response fetched with a projection's fields clause. Only the fields of the projection
+     * are filled in; the others stay null, even if the response happens to carry them.
+     *
+     * @param in         the response body; closed when mapping finishes
+     * @param projection the projection the response was fetched with
+     * @return a list of VideoGame objects
+     * @throws IOException if the stream cannot be read or is not a JSON array
+     */
+    public static List<VideoGame> mapApiResponseToVideoGames(InputStream in, GameProjection projection) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return readGames(in, projection);
+        } finally {
+            IGDB_MAPPING.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static List<VideoGame> readGames(InputStream in, GameProjection projection) throws IOException {
+        List<VideoGame> videoGames = new ArrayList<>();
+        boolean detail = projection == GameProjection.DETAIL;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array from the IGDB API");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                videoGames.add(readVideoGame(parser, detail));
+            }
+        }
+
+        return videoGames;
+    }
+
+    /**
+     * Reads one game object, leaving the parser on its END_OBJECT token.
+     *
+     * @param parser the parser, positioned on the game's START_OBJECT token
+     * @param detail whether to map the detail-only fields (description and companies)
+     * @return the mapped VideoGame
+     * @throws IOException if the stream cannot be read
+     */
+    private static VideoGame readVideoGame(JsonParser parser, boolean detail) throws IOException {
+        VideoGame videoGame = new VideoGame();
+        videoGame.setGameId(0L);
+        videoGame.setGameName("Unknown Game");
+        videoGame.setGenre("Unknown");
+        videoGame.setPlatform("Unknown");
+        videoGame.setImageUrl("No Image");
+        videoGame.setReleaseDate("Unknown");
+        if (detail) {
+            videoGame.setInvolvedCompanies("Unknown");
+            videoGame.setMaturityRating("Unknown"); // Placeholder for ESRB ratings
+            videoGame.setDescription("No description available.");
+            videoGame.setDeveloper("Unknown");
+            videoGame.setPublisher("Unknown");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            if (!detail && (field.equals("involved_companies") || field.equals("summary"))) {
+                parser.skipChildren();
+                continue;
+            }
+
+            switch (field) {
+                case "id" -> videoGame.setGameId(parser.getValueAsLong());
+                case "name" -> videoGame.setGameName(parser.getValueAsString());
+                case "genres" -> videoGame.setGenre(readNames(parser));
+                case "platforms" -> videoGame.setPlatform(readNames(parser));
+                case "involved_companies" -> readInvolvedCompanies(parser, videoGame);
+                case "rating" -> videoGame.setRating(Math.round(parser.getValueAsDouble() * 100.0) / 100.0);
+                case "total_rating_count" -> videoGame.setReviewCount(parser.getValueAsInt());
+                case "summary" -> videoGame.setDescription(parser.getValueAsString());
+                case "cover" -> videoGame.setImageUrl(readCoverUrl(parser));
+                case "first_release_date" -> videoGame.setReleaseDate(LocalDate.ofInstant(
+                        Instant.ofEpochSecond(parser.getValueAsLong()), ZoneId.systemDefault()).toString());
+                default -> parser.skipChildren();
+            }
+        }
+
+        return videoGame;
+    }
+
+    /**
+     * Streaming counterpart of {@link #joinJSONArray} for arrays of objects with a "name" field.
+     *
+     * @param parser the parser, positioned on the array's START_ARRAY token
+     * @return a comma-separated string of names, or "Unknown" if there are none
+     * @throws IOException if the stream cannot be read
+     */
+    private static String readNames(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return "Unknown";
+        }
+
+        StringBuilder names = new StringBuilder();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren(); // Unexpanded reference (a bare ID)
+                continue;
+            }
+            if (!names.isEmpty()) {
+                names.append(", ");
+            }
+            names.append(readStringField(parser, "name", "Unknown"));
+        }
+        return names.isEmpty() ? "Unknown" : names.toString();
+    }
+
+    /**
+     * Streaming counterpart of the involved_companies handling in {@link #mapApiResponseToVideoGames(JSONArray)}:
+     * sets the joined company names plus the first developer and publisher.
+     *
+     * @param parser    the parser, positioned on the array's START_ARRAY token
+     * @param videoGame the game to fill in
+     * @throws IOException if the stream cannot be read
+     */
+    private static void readInvolvedCompanies(JsonParser parser, VideoGame videoGame) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        StringBuilder companies = new StringBuilder();
+        String developer = null;
+        String publisher = null;
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            String companyName = null;
+            boolean isDeveloper = false;
+            boolean isPublisher = false;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "company" -> {
+                        if (token == JsonToken.START_OBJECT) {
+                            companyName = readStringField(parser, "name", "Unknown");
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                    case "developer" -> isDeveloper = token == JsonToken.VALUE_TRUE;
+                    case "publisher" -> isPublisher = token == JsonToken.VALUE_TRUE;
+                    default -> parser.skipChildren();
+                }
+            }
+
+            if (companyName != null) {
+                if (!companies.isEmpty()) {
+                    companies.append(", ");
+                }
+                companies.append(companyName);
+            }
+            if (isDeveloper && developer == null) {
+                developer = companyName != null ? companyName : "Unknown";
+            }
+            if (isPublisher && publisher == null) {
+                publisher = companyName != null ? companyName : "Unknown";
+            }
+        }
+
+        if (!companies.isEmpty()) {
+            videoGame.setInvolvedCompanies(companies.toString());
+        }
+        if (developer != null) {
+            videoGame.setDeveloper(developer);
+        }
+        if (publisher != null) {
+            videoGame.setPublisher(publisher);
+        }
+    }
+
+    /**
+     * Reads the url of a nested cover object.
+     *
+     * @param parser the parser, positioned on the cover value
+     * @return the cover url, or "No Image" if it has none
+     * @throws IOException if the stream cannot be read
+     */
+    private static String readCoverUrl(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return "No Image";
+        }
+        return readStringField(parser, "url", "No Image");
+    }
+
+    /**
+     * Reads one string field out of an object and skips everything else in it.
+     *
+     * @param parser       the parser, positioned on the object's START_OBJECT token
+     * @param field        the field to read
+     * @param defaultValue the value to return if the field is missing or null
+     * @return the field value, or defaultValue
+     * @throws IOException if the stream cannot be read
+     */
+    private static String readStringField(JsonParser parser, String field, String defaultValue) throws IOException {
+        String value = defaultValue;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean matches = parser.getCurrentName().equals(field);
+            JsonToken token = parser.nextToken();
+            if (matches && token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+                value = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Maps the current row of a VideoGame table query to a VideoGame object.
+     *
+     * @param rs the result set, positioned on the row to map
+     * @return a VideoGame object
+     * @throws SQLException if a column cannot be read
+     */
+    public static VideoGame mapResultSetToVideoGame(ResultSet rs) throws SQLException {
+        return mapResultSetToVideoGame(rs, GameProjection.DETAIL);
+    }
+
+    /**
+     * Maps the current row of a query selecting a projection's columns to a VideoGame object.
+     *
+     * @param rs         the result set, positioned on the row to map
+     * @param projection the projection whose columns were selected
+     * @return a VideoGame object with only the fields of the projection set
+     * @throws SQLException if a column cannot be read
+     */
+    public static VideoGame mapResultSetToVideoGame(ResultSet rs, GameProjection projection) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return readRow(rs, projection);
+        } finally {
+            SQLITE_MAPPING.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static VideoGame readRow(ResultSet rs, GameProjection projection) throws SQLException {
+        if (projection == GameProjection.LIST) {
+            VideoGame videoGame = new VideoGame();
+            videoGame.setGameId(rs.getLong("gameId"));
+            videoGame.setGameName(rs.getString("gameName"));
+            videoGame.setReleaseDate(rs.getString("releaseDate"));
+            videoGame.setGenre(rs.getString("genre"));
+            videoGame.setPlatform(rs.getString("platform"));
+            videoGame.setRating(rs.getDouble("rating"));
+            videoGame.setReviewCount(rs.getInt("reviewCount"));
+            videoGame.setImageUrl(rs.getString("imageUrl"));
+            return videoGame;
+        }
+
+        VideoGame videoGame = new VideoGame();
+        videoGame.setGameId(rs.getLong("gameId"));
+        videoGame.setGameName(rs.getString("gameName"));
+        videoGame.setDeveloper(rs.getString("developer"));
+        videoGame.setPublisher(rs.getString("publisher"));
+        videoGame.setReleaseDate(rs.getString("releaseDate"));
+        videoGame.setGenre(rs.getString("genre"));
+        videoGame.setPlatform(rs.getString("platform"));
+        videoGame.setInvolvedCompanies(rs.getString("involvedCompanies"));
+        videoGame.setRating(rs.getDouble("rating"));
+        videoGame.setReviewCount(rs.getInt("reviewCount"));
+        videoGame.setMaturityRating(rs.getString("maturityRating"));
+        videoGame.setDescription(rs.getString("description"));
+        videoGame.setImageUrl(rs.getString("imageUrl"));
+        return videoGame;
+    }
+
+    private static Timer mappingTimer(String source) {
+        return Timer.builder("gamefinder.mapping")
+                .description("Time spent mapping games out of IGDB responses and SQLite rows")
+                .tag("source", source)
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Splits a comma-separated string produced by {@link #joinJSONArray} back into its values.
+     *
+     * @param joined the comma-separated string
+     * @return the individual values, or an empty list for null or "Unknown"
+     */
+    public static List<String> splitJoined(String joined) {
+        if (joined == null || joined.isEmpty() || joined.equals("Unknown")) {
+            return List.of();
+        }
+        return List.of(joined.split(", "));
+    }
+
     /**
      * Helper method to extract company name by role (e.g., developer or publisher).
      *
@@ -0,0 +1,115 @@
+package com.example.demo.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls for the same key: while a call is in flight, later callers with the
+ * same key share its result instead of starting their own. Once the call completes the key is released,
+ * so the next caller starts a fresh call; nothing is cached.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Runs an async call, or joins the one already in flight for this key.
+     *
+     * @param key  identifies identical calls
+     * @param call starts the call; only invoked if no call for the key is in flight
+     * @return a future completed with the shared result
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        calls.increment();
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        try {
+            call.get().whenComplete((result, error) -> land(key, flight, result, error));
+        } catch (RuntimeException | Error e) {
+            land(key, flight, null, e);
+        }
+        return flight;
+    }
+
+    /**
+     * Runs a blocking call on the calling thread, or waits for the one already in flight for this key.
+     *
+     * @param key  identifies identical calls
+     * @param call the call; only invoked if no call for the key is in flight
+     * @return the shared result
+     * @throws Exception the exception thrown by the call
+     */
+    public V call(K key, Callable<V> call) throws Exception {
+        calls.increment();
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            }
+        }
+
+        try {
+            V result = call.call();
+            land(key, flight, result, null);
+            return result;
+        } catch (Throwable e) {
+            // Errors too: a key left in flight would block every later caller for good
+            land(key, flight, null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Total number of calls made through this instance, coalesced or not.
+     *
+     * @return the call count
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * Number of calls that joined an in-flight call instead of starting their own.
+     *
+     * @return the coalesced call count
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private void land(K key, CompletableFuture<V> flight, V result, Throwable error) {
+        // Release the key before completing, so callers arriving after completion start a new call
+        inFlight.remove(key, flight);
+        if (error != null) {
+            flight.completeExceptionally(error);
+        } else {
+            flight.complete(result);
+        }
+    }
+
+    private static Exception unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error instanceof Exception e ? e : new ExecutionException(error);
+    }
+}
@@ -0,0 +1,90 @@
+-- Applied on every startup (spring.sql.init.mode=always), so every statement must be idempotent.
+
+CREATE TABLE IF NOT EXISTS "User" (
+	"userId"	INTEGER NOT NULL,
+	"username"	TEXT NOT NULL UNIQUE,
+	"password"	TEXT NOT NULL,
+	PRIMARY KEY("userId" AUTOINCREMENT)
+);
+
+CREATE TABLE IF NOT EXISTS "GamesPlayed" (
+	"userId"	INTEGER NOT NULL,
+	"gameId"	INTEGER NOT NULL,
+	"ratingScore"	REAL NOT NULL,
+	"reviewComment"	TEXT,
+	PRIMARY KEY("userId","gameId")
+);
+
+-- Local mirror of the IGDB catalog, filled by CatalogIngestionService
+CREATE TABLE IF NOT EXISTS "VideoGame" (
+	"gameId"	INTEGER NOT NULL,
+	"gameName"	TEXT NOT NULL,
+	"developer"	TEXT,
+	"publisher"	TEXT,
+	"releaseDate"	TEXT,
+	"genre"	TEXT,
+	"platform"	TEXT,
+	"involvedCompanies"	TEXT,
+	"rating"	REAL NOT NULL DEFAULT 0,
+	"reviewCount"	INTEGER NOT NULL DEFAULT 0,
+	"maturityRating"	TEXT,
+	"description"	TEXT,
+	"imageUrl"	TEXT,
+	"updatedAt"	INTEGER NOT NULL,
+	PRIMARY KEY("gameId")
+);
+
+CREATE INDEX IF NOT EXISTS "idx_VideoGame_gameName" ON "VideoGame" ("gameName");
+CREATE INDEX IF NOT EXISTS "idx_VideoGame_rating" ON "VideoGame" ("rating");
+CREATE INDEX IF NOT EXISTS "idx_VideoGame_releaseDate" ON "VideoGame" ("releaseDate");
+
+-- One row per genre/platform of a mirrored game, so filters are index lookups instead of LIKE scans
+CREATE TABLE IF NOT EXISTS "VideoGameGenre" (
+	"name"	TEXT NOT NULL,
+	"gameId"	INTEGER NOT NULL,
+	PRIMARY KEY("name","gameId")
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS "idx_VideoGameGenre_gameId" ON "VideoGameGenre" ("gameId");
+
+CREATE TABLE IF NOT EXISTS "VideoGamePlatform" (
+	"name"	TEXT NOT NULL,
+	"gameId"	INTEGER NOT NULL,
+	PRIMARY KEY("name","gameId")
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS "idx_VideoGamePlatform_gameId" ON "VideoGamePlatform" ("gameId");
+
+-- Running rating total and count per game, kept in step with GamesPlayed by ReviewService.saveReview
+CREATE TABLE IF NOT EXISTS "GameRatingStats" (
+	"gameId"	INTEGER NOT NULL,
+	"total"	REAL NOT NULL DEFAULT 0,
+	"count"	INTEGER NOT NULL DEFAULT 0,
+	PRIMARY KEY("gameId")
+);
+
+-- Backfill games that were reviewed before GameRatingStats existed
+INSERT OR IGNORE INTO "GameRatingStats" ("gameId", "total", "count")
+	SELECT "gameId", SUM("ratingScore"), COUNT(*) FROM "GamesPlayed" GROUP BY "gameId";
+
+-- Last successful IGDB answer per query, served by IgdbClient while IGDB is unavailable
+CREATE TABLE IF NOT EXISTS "IgdbResponse" (
+	"query"	TEXT NOT NULL,
+	"body"	TEXT NOT NULL,
+	"fetchedAt"	INTEGER NOT NULL,
+	PRIMARY KEY("query")
+);
+CREATE INDEX IF NOT EXISTS "idx_IgdbResponse_fetchedAt" ON "IgdbResponse" ("fetchedAt");
+
+-- Decayed access counts of game pages and IGDB-backed game lists, kept by AccessStats so CacheWarmer
+-- knows what to prefetch after a restart. Lists keep their query as JSON in payload.
+CREATE TABLE IF NOT EXISTS "HotEntry" (
+	"kind"	TEXT NOT NULL,
+	"entryKey"	TEXT NOT NULL,
+	"payload"	TEXT,
+	"score"	REAL NOT NULL,
+	"lastSeen"	INTEGER NOT NULL,
+	PRIMARY KEY("kind","entryKey")
+) WITHOUT ROWID;
+
+CREATE INDEX IF NOT EXISTS "idx_HotEntry_score" ON "HotEntry" ("kind", "score");
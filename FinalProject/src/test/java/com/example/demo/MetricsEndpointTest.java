@@ -0,0 +1,41 @@
+package com.example.demo;
+
+import com.example.demo.service.ReviewService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Test
+	void prometheusEndpointExposesHistogramsForEndpointsAndQueries() throws Exception {
+		mockMvc.perform(get("/register")).andExpect(status().isOk());
+		reviewService.getRatingStats(-42L);
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+				.andExpect(content().string(containsString("uri=\"/register\"")))
+				.andExpect(content().string(containsString("gamefinder_db_queries_seconds_bucket{")))
+				.andExpect(content().string(containsString("query=\"review.rating_stats\"")))
+				.andExpect(content().string(containsString("gamefinder_igdb_circuit_state")))
+				.andExpect(content().string(containsString("cache_gets_total{cache=\"games\"")));
+	}
+}
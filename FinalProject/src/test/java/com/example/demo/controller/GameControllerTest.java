@@ -0,0 +1,71 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.IgdbClient;
+import com.example.demo.service.StubIgdbServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GameControllerTest {
+
+	private static final StubIgdbServer IGDB = startStub();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void igdbProperties(DynamicPropertyRegistry registry) {
+		registry.add("igdb.base-url", IGDB::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		IGDB.stop();
+	}
+
+	@Test
+	void gamePageStitchesCachedFragmentsAroundTheVisitorsPart() throws Exception {
+		long id = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": " + id + ", \"name\": \"Fragment Game\", \"rating\": 80, " +
+				"\"total_rating_count\": 4, \"summary\": \"Rendered once.\", \"genres\": [{\"name\": \"Puzzle\"}]}]");
+
+		for (int i = 0; i < 2; i++) {
+			MvcResult page = mockMvc.perform(get("/game/" + id)).andReturn();
+			mockMvc.perform(asyncDispatch(page))
+					.andExpect(status().isOk())
+					.andExpect(content().string(allOf(
+							containsString("<h1>Fragment Game</h1>"),
+							containsString("Puzzle"),
+							containsString("Rendered once."),
+							containsString("4 Reviews"),
+							containsString("You must <a href=\"/\">sign in</a>"))));
+		}
+	}
+
+	private static StubIgdbServer startStub() {
+		try {
+			return new StubIgdbServer();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.IgdbClient;
+import com.example.demo.service.StubIgdbServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SearchControllerTest {
+
+	private static final StubIgdbServer IGDB = startStub();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void igdbProperties(DynamicPropertyRegistry registry) {
+		registry.add("igdb.base-url", IGDB::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		IGDB.stop();
+	}
+
+	@BeforeEach
+	void resetStub() {
+		IGDB.reset();
+	}
+
+	@Test
+	void matchingIfNoneMatchGetsA304WithoutABody() throws Exception {
+		// Games are cached for the whole test context, so use ones no other test has fetched
+		long id = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": " + id + ", \"name\": \"Tagged Game\", \"rating\": 81}]");
+
+		MvcResult first = mockMvc.perform(asyncDispatch(await(get("/api/games/batch").param("ids", String.valueOf(id)))))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("stale-while-revalidate")))
+				.andExpect(content().string(containsString("Tagged Game")))
+				.andReturn();
+		String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+		MvcResult repeat = await(get("/api/games/batch").param("ids", String.valueOf(id)).header(HttpHeaders.IF_NONE_MATCH, etag));
+		mockMvc.perform(asyncDispatch(repeat))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+		assertEquals(1, IGDB.requestCount());
+	}
+
+	@Test
+	void emptyResultsAreAlwaysRevalidated() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, 500, "{\"message\": \"boom\"}");
+		long id = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+
+		mockMvc.perform(asyncDispatch(await(get("/api/games/batch").param("ids", String.valueOf(id)))))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+	}
+
+	@Test
+	void facetsAreRevalidatedUntilTheyHaveLoaded() throws Exception {
+		// Facets don't load on startup in tests, so the registry still holds its empty lists
+		for (String endpoint : new String[]{"/api/genres", "/api/platforms", "/api/facets"}) {
+			mockMvc.perform(get(endpoint))
+					.andExpect(status().isOk())
+					.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+		}
+	}
+
+	private MvcResult await(RequestBuilder builder) throws Exception {
+		MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+		result.getAsyncResult();
+		return result;
+	}
+
+	private static StubIgdbServer startStub() {
+		try {
+			return new StubIgdbServer();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.example.demo.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.service.IgdbClient;
+import com.example.demo.service.StubIgdbServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Compares throughput and latency of /api/games and /game/{id} with request handling on platform threads
+ * and on virtual threads, against a stubbed IGDB that answers after a fixed delay. Not a unit test;
+ * run it on demand:
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.mainClass=com.example.demo.loadtest.LoadTestHarness -Dexec.classpathScope=test
+ * </pre>
+ *
+ * Optional arguments: concurrency (default 400), requests per endpoint (default 4000), IGDB latency in ms (default 150).
+ * Virtual threads need Java 21+; on older JVMs the "virtual" run falls back to platform threads and says so.
+ */
+public class LoadTestHarness {
+
+	public static void main(String[] args) throws Exception {
+		int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+		int requests = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+		long latencyMs = args.length > 2 ? Long.parseLong(args[2]) : 150;
+
+		StubIgdbServer igdb = new StubIgdbServer();
+		igdb.setLatency(Duration.ofMillis(latencyMs));
+		igdb.respond(IgdbClient.GAMES, stubGames(10));
+
+		System.out.printf("IGDB stub latency %d ms, concurrency %d, %d requests per endpoint, Java %d%n",
+				latencyMs, concurrency, requests, Runtime.version().feature());
+
+		List<String> report = new ArrayList<>();
+		try {
+			for (boolean virtual : new boolean[]{false, true}) {
+				ConfigurableApplicationContext app = start(igdb, virtual);
+				try {
+					int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+					String mode = virtual && Runtime.version().feature() >= 21 ? "virtual" : virtual ? "virtual (unavailable, platform)" : "platform";
+					report.add(run(mode, "/api/games", port, concurrency, requests,
+							i -> "/api/games?limit=10&offset=" + (i % 50) * 10 + "&sortBy=name&sortOrder=asc"));
+					report.add(run(mode, "/game/{id}", port, concurrency, requests,
+							i -> "/game/" + ThreadLocalRandom.current().nextInt(1, 1_000_000)));
+				} finally {
+					app.close();
+				}
+			}
+		} finally {
+			igdb.stop();
+		}
+
+		System.out.println();
+		System.out.printf("%-32s %-12s %12s %10s %10s %10s %8s%n", "mode", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+		report.forEach(System.out::println);
+	}
+
+	private static ConfigurableApplicationContext start(StubIgdbServer igdb, boolean virtual) {
+		// Passed as command-line arguments so they take precedence over application.properties
+		return new SpringApplicationBuilder(DemoApplication.class).run(
+				"--server.port=0",
+				"--spring.threads.virtual.enabled=" + virtual,
+				"--igdb.base-url=" + igdb.baseUrl(),
+				"--gamefinder.db.url=jdbc:sqlite:target/loadtest-video_games.db",
+				"--gamefinder.cache.games.max-size=0", // Every request goes upstream
+				"--gamefinder.cache.lists.max-size=0",
+				"--gamefinder.warmer.enabled=false",
+				"--igdb.rate-limit.requests-per-second=100000", // The stub has no rate limit; measure the app, not the governor
+				"--igdb.rate-limit.burst=100000",
+				"--igdb.rate-limit.max-concurrency=100000",
+				"--logging.level.root=WARN");
+	}
+
+	private static String run(String mode, String endpoint, int port, int concurrency, int requests,
+							  IntFunction<String> path) throws Exception {
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+		long[] latencies = new long[requests];
+		AtomicInteger next = new AtomicInteger();
+		AtomicInteger errors = new AtomicInteger();
+
+		// Warm up connections, JIT and the Tomcat pool before measuring
+		for (int i = 0; i < Math.min(200, requests); i++) {
+			send(client, port, path.apply(i));
+		}
+
+		long start = System.nanoTime();
+		List<Future<?>> futures = new ArrayList<>();
+		for (int w = 0; w < concurrency; w++) {
+			futures.add(workers.submit(() -> {
+				int i;
+				while ((i = next.getAndIncrement()) < requests) {
+					long t0 = System.nanoTime();
+					int status = send(client, port, path.apply(i));
+					latencies[i] = System.nanoTime() - t0;
+					if (status != 200) {
+						errors.incrementAndGet();
+					}
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		long elapsed = System.nanoTime() - start;
+		workers.shutdown();
+
+		Arrays.sort(latencies);
+		double throughput = requests / (elapsed / 1e9);
+		return String.format("%-32s %-12s %12.1f %10.1f %10.1f %10.1f %8d", mode, endpoint, throughput,
+				percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6, errors.get());
+	}
+
+	private static int send(HttpClient client, int port, String path) {
+		try {
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+					.header("Cookie", "userId=-1")
+					.build();
+			return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+	}
+
+	private static String stubGames(int count) {
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"id\":").append(1000 + i)
+					.append(",\"name\":\"Stub Game ").append(i).append('"')
+					.append(",\"rating\":").append(60 + i)
+					.append(",\"total_rating_count\":").append(100 + i)
+					.append(",\"summary\":\"A game served by the load-test stub.\"")
+					.append(",\"genres\":[{\"id\":12,\"name\":\"Role-playing (RPG)\"}]")
+					.append(",\"platforms\":[{\"id\":6,\"name\":\"PC (Microsoft Windows)\"}]}");
+		}
+		return json.append(']').toString();
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactGameTest {
+
+	@Test
+	void decodesToTheSameGame() {
+		VideoGame game = new VideoGame();
+		game.setGameId(1942L);
+		game.setGameName("The Witcher 3: Wild Hunt");
+		game.setGenre("Role-playing (RPG), Adventure");
+		game.setPlatform("PC (Microsoft Windows), PlayStation 4");
+		game.setInvolvedCompanies("CD Projekt RED, Bandai Namco");
+		game.setDeveloper("CD Projekt RED");
+		game.setPublisher("Bandai Namco");
+		game.setRating(93.46);
+		game.setReviewCount(3120);
+		game.setReleaseDate("2015-05-19");
+		game.setMaturityRating("Unknown");
+		game.setDescription("RPG set in an open world.");
+		game.setImageUrl("//images.igdb.com/co1wyy.jpg");
+
+		VideoGame decoded = CompactGame.of(game).toVideoGame();
+		VideoGame listed = CompactGame.of(game).toVideoGame(GameProjection.LIST);
+
+		assertEquals(game.getGenre(), decoded.getGenre());
+		assertEquals(game.getPlatform(), decoded.getPlatform());
+		assertEquals(game.getInvolvedCompanies(), decoded.getInvolvedCompanies());
+		assertEquals(game.getDeveloper(), decoded.getDeveloper());
+		assertEquals(game.getPublisher(), decoded.getPublisher());
+		assertEquals(game.getRating(), decoded.getRating());
+		assertEquals(game.getDescription(), decoded.getDescription());
+		assertEquals(game.getReleaseDate(), decoded.getReleaseDate());
+		assertEquals(game.getImageUrl(), decoded.getImageUrl());
+		assertEquals(game.getPlatform(), listed.getPlatform());
+		assertNull(listed.getDescription());
+		assertNull(listed.getDeveloper());
+	}
+
+	@Test
+	void filtersMatchByDictionaryId() {
+		VideoGame game = new VideoGame();
+		game.setGameId(7L);
+		game.setGenre("Shooter, Indie");
+		game.setPlatform("Linux");
+		game.setRating(81.5);
+		game.setReleaseDate("1969-12-31");
+		CompactGame compact = CompactGame.of(game);
+
+		assertTrue(CompactGame.matching(GameQuery.builder().genres(List.of("Puzzle", "Indie")).minRating(80.0).build()).test(compact));
+		assertFalse(CompactGame.matching(GameQuery.builder().genres(List.of("Never used genre")).build()).test(compact));
+		assertFalse(CompactGame.matching(GameQuery.builder().platforms(List.of("Linux")).maxRating(80.0).build()).test(compact));
+		assertEquals("1969-12-31", compact.toVideoGame().getReleaseDate());
+	}
+}
@@ -0,0 +1,48 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GameListPageTest {
+
+	@Test
+	void namesAreListedOnceAndPlaceholdersLeftOut() {
+		GameListPage page = GameListPage.of(List.of(
+				game(1L, "Role-playing (RPG), Adventure", "PC (Microsoft Windows)", 93.46, "//images.igdb.com/co1wyy.jpg"),
+				game(2L, "Adventure", "Unknown", 0.0, "No Image")));
+
+		assertEquals(List.of("Role-playing (RPG)", "Adventure"), page.genres());
+		assertEquals(List.of("PC (Microsoft Windows)"), page.platforms());
+
+		GameListPage.Item first = page.games().get(0);
+		assertArrayEquals(new int[]{0, 1}, first.genres());
+		assertArrayEquals(new int[]{0}, first.platforms());
+		assertEquals(93.46, first.rating());
+		assertEquals("//images.igdb.com/co1wyy.jpg", first.cover());
+
+		GameListPage.Item second = page.games().get(1);
+		assertArrayEquals(new int[]{1}, second.genres());
+		assertEquals(0, second.platforms().length);
+		assertNull(second.rating());
+		assertNull(second.reviews());
+		assertNull(second.released());
+		assertNull(second.cover());
+	}
+
+	private static VideoGame game(Long id, String genre, String platform, double rating, String imageUrl) {
+		VideoGame game = new VideoGame();
+		game.setGameId(id);
+		game.setGameName("Game " + id);
+		game.setGenre(genre);
+		game.setPlatform(platform);
+		game.setRating(rating);
+		game.setReleaseDate("Unknown");
+		game.setImageUrl(imageUrl);
+		return game;
+	}
+}
@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.GameQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class AccessStatsTest {
+
+	// The scratch database outlives a test run, so each run counts games and searches of its own
+	private final long firstId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE / 2);
+	private final String search = "hot search " + firstId;
+
+	@Autowired
+	private AccessStats accessStats;
+
+	@Autowired
+	@Qualifier("writeDataSource")
+	private DataSource writeDataSource;
+
+	@AfterEach
+	void deleteEntries() throws Exception {
+		try (Connection conn = writeDataSource.getConnection();
+			 PreparedStatement stmt = conn.prepareStatement("DELETE FROM HotEntry WHERE entryKey IN (?, ?) OR payload LIKE ?")) {
+			stmt.setString(1, String.valueOf(firstId));
+			stmt.setString(2, String.valueOf(firstId + 1));
+			stmt.setString(3, "%" + search + "%");
+			stmt.executeUpdate();
+		}
+	}
+
+	@Test
+	void flushedCountsRankTheHottestFirst() {
+		accessStats.recordGame(firstId + 1);
+		for (int i = 0; i < 30; i++) {
+			accessStats.recordGame(firstId);
+			accessStats.recordQuery(GameQuery.builder().search(search).sort("rating", "desc").build());
+		}
+		accessStats.flush();
+
+		List<Long> games = accessStats.hottestGames(1000);
+		assertTrue(games.indexOf(firstId) >= 0);
+		assertTrue(games.indexOf(firstId) < games.indexOf(firstId + 1));
+		assertTrue(accessStats.hottestQueries(1000).contains(GameQuery.builder().search(search).sort("rating", "desc").build()));
+	}
+
+	@Test
+	void queriesAreStoredAsJsonThatRebuildsTheSameQuery() {
+		GameQuery query = GameQuery.builder()
+				.search(search)
+				.genres(List.of("Shooter", "Role-playing (RPG)"))
+				.platforms(List.of("Say \"Hi\""))
+				.minRating(70.5)
+				.maxYear(2015)
+				.sort("release_dates", "desc")
+				.page(20, 40)
+				.projection(GameProjection.DETAIL)
+				.build();
+
+		GameQuery stored = AccessStats.fromJson(AccessStats.toJson(query));
+
+		assertEquals(query.toCacheKey(), stored.toCacheKey());
+		assertEquals(GameProjection.DETAIL, stored.getProjection());
+	}
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameQuery;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.PageCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class CatalogServiceTest {
+
+	// The scratch database outlives a test run, so each run files its games under a genre of its own
+	private final String genre = "Test genre " + ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+	private final long firstId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE / 2);
+
+	@Autowired
+	private CatalogService catalogService;
+
+	@Autowired
+	@Qualifier("writeDataSource")
+	private DataSource writeDataSource;
+
+	@AfterEach
+	void deleteGames() throws Exception {
+		try (Connection conn = writeDataSource.getConnection();
+			 PreparedStatement games = conn.prepareStatement("DELETE FROM VideoGame WHERE gameId BETWEEN ? AND ?");
+			 PreparedStatement genres = conn.prepareStatement("DELETE FROM VideoGameGenre WHERE gameId BETWEEN ? AND ?")) {
+			for (PreparedStatement stmt : List.of(games, genres)) {
+				stmt.setLong(1, firstId);
+				stmt.setLong(2, firstId + 100);
+				stmt.executeUpdate();
+			}
+		}
+	}
+
+	@Test
+	void cursorPagesContinueAfterTiesOnTheSortKey() {
+		assertTrue(catalogService.upsertGames(List.of(
+				game(0, "Alpha", 70), game(1, "Bravo", 80), game(2, "Bravo", 80), game(3, "Charlie", 90), game(4, "Delta", 60))));
+
+		assertEquals(List.of("Alpha", "Bravo", "Bravo", "Charlie", "Delta"), namesOfAllPages("name", "asc"));
+		assertEquals(List.of("Charlie", "Bravo", "Bravo", "Alpha", "Delta"), namesOfAllPages("rating", "desc"));
+	}
+
+	@Test
+	void filtersCombineAnyOfAGenreWithARatingRange() {
+		String otherGenre = genre + " B";
+		assertTrue(catalogService.upsertGames(List.of(
+				game(0, "Alpha", 70, genre), game(1, "Bravo", 80, otherGenre), game(2, "Charlie", 95, otherGenre), game(3, "Delta", 85, genre))));
+
+		List<VideoGame> games = catalogService.findGames(GameQuery.builder()
+				.genres(List.of(otherGenre, genre))
+				.minRating(75.0)
+				.maxRating(90.0)
+				.page(10, 0)
+				.build());
+
+		assertEquals(List.of("Bravo", "Delta"), games.stream().map(VideoGame::getGameName).toList());
+	}
+
+	private List<String> namesOfAllPages(String sortBy, String sortOrder) {
+		List<String> names = new ArrayList<>();
+		PageCursor cursor = null;
+		do {
+			GameQuery query = GameQuery.builder().genres(List.of(genre)).sort(sortBy, sortOrder).page(2, 0).after(cursor).build();
+			List<VideoGame> page = catalogService.findGames(query);
+			page.forEach(game -> names.add(game.getGameName()));
+			cursor = query.nextCursor(page);
+		} while (cursor != null);
+		return names;
+	}
+
+	private VideoGame game(int offset, String name, double rating) {
+		return game(offset, name, rating, genre);
+	}
+
+	private VideoGame game(int offset, String name, double rating, String genre) {
+		VideoGame game = new VideoGame();
+		game.setGameId(firstId + offset);
+		game.setGameName(name);
+		game.setRating(rating);
+		game.setGenre(genre);
+		game.setPlatform("Unknown");
+		return game;
+	}
+
+}
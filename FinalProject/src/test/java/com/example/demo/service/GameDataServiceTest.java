@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.GameQuery;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.PageCursor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class GameDataServiceTest {
+
+	private static final StubIgdbServer IGDB = startStub();
+
+	private static final String GAMES = """
+			[{"id": 1942, "name": "The Witcher 3: Wild Hunt", "rating": 93.4, "total_rating_count": 3120,
+			  "genres": [{"id": 12, "name": "Role-playing (RPG)"}]},
+			 {"id": 1020, "name": "Grand Theft Auto V", "rating": 90.1, "total_rating_count": 4200}]
+			""";
+
+	@Autowired
+	private GameDataService gameDataService;
+
+	@Autowired
+	private FacetRegistry facetRegistry;
+
+	@DynamicPropertySource
+	static void igdbProperties(DynamicPropertyRegistry registry) {
+		registry.add("igdb.base-url", IGDB::baseUrl);
+	}
+
+	@AfterAll
+	static void stopStub() {
+		IGDB.stop();
+	}
+
+	@BeforeEach
+	void resetStub() {
+		IGDB.reset();
+	}
+
+	@Test
+	void getGameByIdIsServedFromCacheAfterFirstFetch() {
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 77001, \"name\": \"Cached Game\", \"rating\": 80}]");
+
+		VideoGame first = gameDataService.getGameById(77001L);
+		first.setRating(1.0); // Callers get a copy, so this must not leak into the cache
+		VideoGame second = gameDataService.getGameById(77001L);
+
+		assertEquals("Cached Game", second.getGameName());
+		assertEquals(80.0, second.getRating());
+		assertEquals(1, IGDB.requestCount());
+		assertTrue(IGDB.queries().get(0).contains("where id = 77001;"));
+	}
+
+	@Test
+	void listResultsUseTheListProjectionAndStayOutOfTheGameCache() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, GAMES);
+
+		List<VideoGame> games = gameDataService.searchGamesAsync("witcher", 10, 0).get();
+		VideoGame detail = gameDataService.getGameByIdAsync(1942L).get();
+
+		assertEquals(2, games.size());
+		assertNull(games.get(0).getDescription());
+		assertEquals("Role-playing (RPG)", detail.getGenre());
+		assertEquals("No description available.", detail.getDescription());
+		assertEquals(2, IGDB.requestCount());
+		assertTrue(IGDB.queries().get(0).startsWith(GameProjection.LIST.igdbFields()));
+		assertTrue(IGDB.queries().get(1).startsWith(GameProjection.DETAIL.igdbFields()));
+		assertEquals("Bearer haha", IGDB.authorizations().get(0));
+	}
+
+	@Test
+	void gamesByIdsAreFilledFromCacheThenFetchedInOneBatchInInputOrder() {
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 88002, \"name\": \"Bravo\"}]");
+		gameDataService.getGameById(88002L);
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 88001, \"name\": \"Alpha\"}, {\"id\": 88003, \"name\": \"Charlie\"}]");
+
+		List<VideoGame> games = gameDataService.getGamesByIds(List.of(88003L, 88002L, 88001L, 88003L, 88009L));
+
+		assertEquals(List.of("Charlie", "Bravo", "Alpha"), games.stream().map(VideoGame::getGameName).toList());
+		assertEquals(2, IGDB.requestCount());
+		assertTrue(IGDB.queries().get(1).contains("where id = (88003,88001,88009); limit 3;"));
+	}
+
+	@Test
+	void genresAreReadFromTheGenresEndpoint() {
+		IGDB.respond(IgdbClient.GENRES, "[{\"id\": 5, \"name\": \"Shooter\"}, {\"id\": 31, \"name\": \"Adventure\"}]");
+
+		assertEquals(List.of("Shooter", "Adventure"), gameDataService.getGenres());
+	}
+
+	@Test
+	void facetsAreServedFromMemoryAndSurviveUpstreamErrors() {
+		IGDB.respond(IgdbClient.GENRES, "[{\"id\": 5, \"name\": \"Shooter\"}]");
+		IGDB.respond(IgdbClient.PLATFORMS, "[{\"id\": 6, \"name\": \"PC (Microsoft Windows)\"}]");
+		facetRegistry.refresh();
+		String etag = facetRegistry.snapshot().genresEtag();
+
+		assertEquals(List.of("Shooter"), facetRegistry.snapshot().genres());
+		assertEquals(List.of("PC (Microsoft Windows)"), facetRegistry.snapshot().platforms());
+		assertEquals(2, IGDB.requestCount());
+
+		IGDB.respond(IgdbClient.GENRES, 500, "{\"message\": \"boom\"}");
+		facetRegistry.refresh();
+
+		assertEquals(List.of("Shooter"), facetRegistry.snapshot().genres());
+		assertEquals(etag, facetRegistry.snapshot().genresEtag());
+	}
+
+	@Test
+	void cursorPagesContinueAfterTheLastSortKey() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, GAMES);
+
+		GameQuery.Builder query = GameQuery.builder().genres(List.of("Role-playing (RPG)")).sort("rating", "desc").page(2, 0);
+		GameQuery firstPage = query.build();
+		List<VideoGame> first = gameDataService.findGamesAsync(firstPage).get();
+		PageCursor cursor = PageCursor.decode(firstPage.nextCursor(first).encode());
+		gameDataService.findGamesAsync(query.after(cursor).build()).get();
+
+		assertEquals("90.1", cursor.getKey());
+		assertArrayEquals(new long[]{1020L}, cursor.getSeenIds());
+		assertTrue(IGDB.queries().get(0).contains("where genres.name = (\"Role-playing (RPG)\") & rating != null; sort rating desc; limit 2;"));
+		assertTrue(IGDB.queries().get(1).contains("where genres.name = (\"Role-playing (RPG)\") & rating != null & rating < 90.105 & id != (1020); sort rating desc; limit 2;"));
+		assertNull(query.build().nextCursor(first.subList(0, 1))); // Short page is the last
+	}
+
+	@Test
+	void filtersCompileIntoOneEscapedWhereClause() {
+		GameQuery query = GameQuery.builder()
+				.genres(List.of(" Shooter", "Role-playing (RPG)", ""))
+				.platforms(List.of("Say \"Hi\""))
+				.minRating(70.0)
+				.maxRating(90.5)
+				.sort("bogus", "DESC")
+				.page(20, 40)
+				.build();
+		GameQuery reordered = GameQuery.builder()
+				.platforms(List.of("Say \"Hi\""))
+				.genres(List.of("Role-playing (RPG)", "Shooter"))
+				.maxRating(90.5)
+				.minRating(70.0)
+				.sort("name", "desc")
+				.page(20, 40)
+				.build();
+
+		String compiled = GameDataService.buildQuery(query);
+		assertEquals("where genres.name = (\"Role-playing (RPG)\",\"Shooter\") & platforms.name = (\"Say \\\"Hi\\\"\") "
+				+ "& rating >= 70 & rating <= 90.5; sort name desc; limit 20; offset 40;",
+				compiled.substring(compiled.indexOf("where")));
+		assertEquals(query, reordered);
+		assertEquals(query.toCacheKey(), reordered.toCacheKey());
+		assertEquals(compiled, GameDataService.buildQuery(reordered));
+	}
+
+	@Test
+	void upstreamErrorsBecomeEmptyResults() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, 500, "{\"message\": \"boom\"}");
+
+		assertEquals(List.of(), gameDataService.getGames(10, 0));
+		assertEquals(List.of(), gameDataService.getGamesAsync(10, 0).get());
+		assertNull(gameDataService.getGameByIdAsync(99999L).get());
+	}
+
+	private static StubIgdbServer startStub() {
+		try {
+			return new StubIgdbServer();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.example.demo.service;
+
+import com.example.demo.model.VideoGame;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class GamePageCacheTest {
+
+	@Autowired
+	private GamePageCache gamePageCache;
+
+	@Test
+	void fragmentsAreRenderedOncePerGameVersion() {
+		VideoGame game = game(ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE));
+
+		GamePageCache.Fragments first = gamePageCache.get(game);
+		game.setRating(12.5); // Not part of the fragments
+		assertSame(first, gamePageCache.get(game));
+		assertTrue(first.header().contains("<h1>Tom &amp; Jerry</h1>"));
+		assertTrue(first.description().contains("A cat chases a mouse."));
+
+		game.setDescription("A mouse outwits a cat.");
+		GamePageCache.Fragments changed = gamePageCache.get(game);
+		assertNotSame(first, changed);
+		assertTrue(changed.description().contains("A mouse outwits a cat."));
+
+		gamePageCache.evict(game.getGameId());
+		assertNotSame(changed, gamePageCache.get(game));
+	}
+
+	private static VideoGame game(long id) {
+		VideoGame game = new VideoGame();
+		game.setGameId(id);
+		game.setGameName("Tom & Jerry");
+		game.setGenre("Platform");
+		game.setDescription("A cat chases a mouse.");
+		game.setImageUrl("//images.igdb.com/co1.jpg");
+		return game;
+	}
+}
@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.model.FacetCount;
+import com.example.demo.model.GameFacets;
+import com.example.demo.model.GameQuery;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.PageCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class GameSearchIndexTest {
+
+	// The scratch database outlives a test run, so each run files its games under genres and platforms of its own
+	private final long run = ThreadLocalRandom.current().nextLong(Long.MAX_VALUE);
+	private final String genre = "Index genre " + run;
+	private final String otherGenre = "Index genre B " + run;
+	private final String platform = "Index platform " + run;
+	private final String otherPlatform = "Index platform B " + run;
+	private final long firstId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE / 2);
+
+	@Autowired
+	private GameSearchIndex searchIndex;
+
+	@Autowired
+	private CatalogService catalogService;
+
+	@Autowired
+	@Qualifier("writeDataSource")
+	private DataSource writeDataSource;
+
+	@AfterEach
+	void deleteGames() throws Exception {
+		try (Connection conn = writeDataSource.getConnection();
+			 PreparedStatement games = conn.prepareStatement("DELETE FROM VideoGame WHERE gameId BETWEEN ? AND ?");
+			 PreparedStatement genres = conn.prepareStatement("DELETE FROM VideoGameGenre WHERE gameId BETWEEN ? AND ?");
+			 PreparedStatement platforms = conn.prepareStatement("DELETE FROM VideoGamePlatform WHERE gameId BETWEEN ? AND ?")) {
+			for (PreparedStatement stmt : List.of(games, genres, platforms)) {
+				stmt.setLong(1, firstId);
+				stmt.setLong(2, firstId + 100);
+				stmt.executeUpdate();
+			}
+		}
+		searchIndex.rebuild();
+	}
+
+	@Test
+	void keysetPagesOverTiesMatchTheLocalMirror() {
+		assertTrue(catalogService.upsertGames(List.of(
+				game(0, "Bravo", 80, "2001-05-01", genre, platform),
+				game(1, "Alpha", 70, "2001-05-01", genre, platform),
+				game(2, "Bravo", 80, "1999-01-01", genre, platform),
+				game(3, "Charlie", 90, "2001-05-01", genre, platform),
+				game(4, "Bravo", 80, "2010-12-31", genre, platform),
+				game(5, "Delta", 60, "1999-01-01", genre, platform))));
+		searchIndex.rebuild();
+
+		for (String sortBy : List.of("name", "rating", "release_dates")) {
+			for (String sortOrder : List.of("asc", "desc")) {
+				List<Long> fromMirror = idsOfAllPages(sortBy, sortOrder, catalogService::findGames);
+				assertEquals(6, fromMirror.size(), sortBy + " " + sortOrder);
+				assertEquals(fromMirror, idsOfAllPages(sortBy, sortOrder, searchIndex::browse), sortBy + " " + sortOrder);
+			}
+		}
+	}
+
+	@Test
+	void tamperedRatingCursorsGetAnEmptyPage() {
+		assertTrue(catalogService.upsertGames(List.of(game(0, "Alpha", 70, "2001-05-01", genre, platform))));
+		searchIndex.rebuild();
+
+		PageCursor tampered = PageCursor.keyset("rating", "desc", "not a rating", firstId, new long[0]);
+		GameQuery query = GameQuery.builder().genres(List.of(genre)).sort("rating", "desc").page(2, 0).after(tampered).build();
+
+		assertEquals(List.of(), searchIndex.browse(query));
+	}
+
+	@Test
+	void facetCountsIgnoreTheirOwnFilterButApplyTheOthers() {
+		assertTrue(catalogService.upsertGames(List.of(
+				game(0, "Alpha", 70, "2001-05-01", genre, platform),
+				game(1, "Bravo", 70, "2001-05-01", otherGenre, platform),
+				game(2, "Charlie", 70, "2001-05-01", otherGenre, platform),
+				game(3, "Delta", 70, "2001-05-01", genre, otherPlatform),
+				game(4, "Echo", 70, "2001-05-01", genre, otherPlatform),
+				game(5, "Foxtrot", 70, "2001-05-01", otherGenre, otherPlatform))));
+		searchIndex.rebuild();
+
+		GameFacets facets = searchIndex.facets(GameQuery.builder().genres(List.of(genre)).platforms(List.of(platform)).build());
+
+		assertEquals(1, facets.getTotal());
+		// Genres under the platform filter only, platforms under the genre filter only
+		assertEquals(List.of(otherGenre + "=2", genre + "=1"), counts(facets.getGenres()));
+		assertEquals(List.of(otherPlatform + "=2", platform + "=1"), counts(facets.getPlatforms()));
+	}
+
+	private List<Long> idsOfAllPages(String sortBy, String sortOrder, Function<GameQuery, List<VideoGame>> source) {
+		List<Long> ids = new ArrayList<>();
+		PageCursor cursor = null;
+		do {
+			GameQuery query = GameQuery.builder().genres(List.of(genre)).sort(sortBy, sortOrder).page(2, 0).after(cursor).build();
+			List<VideoGame> page = source.apply(query);
+			page.forEach(game -> ids.add(game.getGameId()));
+			cursor = query.nextCursor(page);
+		} while (cursor != null && ids.size() < 20);
+		return ids;
+	}
+
+	private static List<String> counts(List<FacetCount> facetCounts) {
+		return facetCounts.stream().map(count -> count.getName() + "=" + count.getCount()).toList();
+	}
+
+	private VideoGame game(int offset, String name, double rating, String releaseDate, String genre, String platform) {
+		VideoGame game = new VideoGame();
+		game.setGameId(firstId + offset);
+		game.setGameName(name);
+		game.setRating(rating);
+		game.setReleaseDate(releaseDate);
+		game.setGenre(genre);
+		game.setPlatform(platform);
+		return game;
+	}
+}
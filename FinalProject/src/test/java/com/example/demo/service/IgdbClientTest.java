@@ -0,0 +1,194 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.VideoGame;
+import com.example.demo.util.CircuitBreaker;
+import com.example.demo.util.RequestGovernor.Priority;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class IgdbClientTest {
+
+	private static final StubIgdbServer IGDB = startStub();
+
+	private static final Duration OPEN = Duration.ofMillis(300);
+
+	// Stored answers outlive a test run, so every test queries ids no earlier run has seen
+	private static final AtomicLong IDS = new AtomicLong(System.currentTimeMillis() * 1000);
+
+	@Autowired
+	private IgdbClient igdbClient;
+
+	@Autowired
+	private IgdbResponseStore responseStore;
+
+	@DynamicPropertySource
+	static void igdbProperties(DynamicPropertyRegistry registry) {
+		registry.add("igdb.base-url", IGDB::baseUrl);
+		registry.add("igdb.rate-limit.requests-per-second", () -> "1000");
+		registry.add("igdb.rate-limit.burst", () -> "100");
+		registry.add("igdb.circuit-breaker.window-size", () -> "4");
+		registry.add("igdb.circuit-breaker.minimum-calls", () -> "4");
+		registry.add("igdb.circuit-breaker.slow-call-threshold", () -> "200ms");
+		registry.add("igdb.circuit-breaker.open-duration", () -> OPEN.toMillis() + "ms");
+		registry.add("igdb.circuit-breaker.half-open-probes", () -> "1");
+	}
+
+	@AfterAll
+	static void stopStub() {
+		IGDB.stop();
+	}
+
+	@BeforeEach
+	void closeBreaker() throws Exception {
+		IGDB.reset();
+		if (igdbClient.getCircuitState() != CircuitBreaker.State.CLOSED) {
+			Thread.sleep(OPEN.toMillis() + 50);
+			igdbClient.fetchGames(gameQuery()); // A successful probe closes it
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, igdbClient.getCircuitState());
+	}
+
+	@Test
+	void errorsTripTheBreakerAndLastKnownGoodAnswersAreServed() throws Exception {
+		String query = gameQuery();
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 1, \"name\": \"Stored Game\", \"rating\": 75}]");
+		assertEquals("Stored Game", igdbClient.fetchGames(query).get(0).getGameName());
+		awaitStored(query);
+
+		IGDB.respond(IgdbClient.GAMES, 500, "{\"message\": \"boom\"}");
+		long fallbacks = igdbClient.getFallbackCount();
+		for (int i = 0; i < 3; i++) {
+			List<VideoGame> games = igdbClient.fetchGames(query);
+			assertEquals("Stored Game", games.get(0).getGameName());
+			assertEquals(75.0, games.get(0).getRating());
+		}
+		assertEquals(fallbacks + 3, igdbClient.getFallbackCount());
+		assertEquals(CircuitBreaker.State.OPEN, igdbClient.getCircuitState());
+
+		// Open: answered from the store without a request, or refused at once if there is nothing stored
+		int requests = IGDB.requestCount();
+		assertEquals("Stored Game", igdbClient.fetchGamesAsync(query, GameProjection.DETAIL).get().get(0).getGameName());
+		assertThrows(RejectedExecutionException.class, () -> igdbClient.fetchGames(gameQuery()));
+		ExecutionException error = assertThrows(ExecutionException.class, () -> igdbClient.fetchGamesAsync(gameQuery(), GameProjection.DETAIL).get());
+		assertInstanceOf(RejectedExecutionException.class, error.getCause());
+		assertEquals(requests, IGDB.requestCount());
+	}
+
+	@Test
+	void halfOpenProbesReopenWhileIgdbIsDownAndCloseOnceItRecovers() throws Exception {
+		IGDB.setDropConnections(true);
+		for (int i = 0; i < 4; i++) {
+			assertThrows(IOException.class, () -> igdbClient.fetchGames(gameQuery()));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, igdbClient.getCircuitState());
+
+		Thread.sleep(OPEN.toMillis() + 50);
+		assertThrows(IOException.class, () -> igdbClient.fetchGames(gameQuery())); // The probe fails
+		assertEquals(CircuitBreaker.State.OPEN, igdbClient.getCircuitState());
+
+		IGDB.setDropConnections(false);
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 2, \"name\": \"Back Online\"}]");
+		Thread.sleep(OPEN.toMillis() + 50);
+		assertEquals("Back Online", igdbClient.fetchGames(gameQuery()).get(0).getGameName());
+		assertEquals(CircuitBreaker.State.CLOSED, igdbClient.getCircuitState());
+	}
+
+	@Test
+	void slowAnswersTripTheBreaker() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 3, \"name\": \"Slow Game\"}]");
+		IGDB.setLatency(Duration.ofMillis(300));
+		for (int i = 0; i < 4; i++) {
+			assertEquals("Slow Game", igdbClient.fetchGames(gameQuery()).get(0).getGameName());
+		}
+
+		assertEquals(CircuitBreaker.State.OPEN, igdbClient.getCircuitState());
+	}
+
+	@Test
+	void queriesIgdbRejectsDoNotCountAgainstIt() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, 400, "{\"message\": \"syntax error\"}");
+		for (int i = 0; i < 4; i++) {
+			assertThrows(IgdbClient.StatusException.class, () -> igdbClient.fetchGames(gameQuery()));
+		}
+
+		assertEquals(CircuitBreaker.State.CLOSED, igdbClient.getCircuitState());
+	}
+
+	@Test
+	void onlyListsUsersAskedForAreStored() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 4, \"name\": \"Stored Or Not\"}]");
+		String list = gameQuery();
+		String background = gameQuery();
+		String byId = "fields name, rating; where id = " + IDS.incrementAndGet() + ";";
+
+		igdbClient.fetchGames(background, GameProjection.LIST, Priority.LOW);
+		igdbClient.fetchGames(byId);
+		igdbClient.fetchGames(list);
+		awaitStored(list);
+
+		assertNotNull(responseStore.find(storeKey(list)));
+		assertNull(responseStore.find(storeKey(background)));
+		assertNull(responseStore.find(storeKey(byId)));
+	}
+
+	@Test
+	void usersDoNotJoinBackgroundFlights() throws Exception {
+		IGDB.respond(IgdbClient.GAMES, "[{\"id\": 5, \"name\": \"Shared Flight\"}]");
+		IGDB.setLatency(Duration.ofMillis(100));
+		String query = gameQuery();
+		long coalesced = igdbClient.getCoalescedGameQueryCount();
+
+		CompletableFuture<List<VideoGame>> prefetch = igdbClient.fetchGamesAsync(query, GameProjection.LIST, Priority.LOW);
+		CompletableFuture<List<VideoGame>> user = igdbClient.fetchGamesAsync(query, GameProjection.LIST);
+		CompletableFuture<List<VideoGame>> sameUser = igdbClient.fetchGamesAsync(query, GameProjection.LIST);
+		CompletableFuture.allOf(prefetch, user, sameUser).get();
+
+		assertEquals(2, IGDB.requestCount());
+		assertEquals(coalesced + 1, igdbClient.getCoalescedGameQueryCount());
+	}
+
+	private static String gameQuery() {
+		return "fields name, rating; where total_rating_count = " + IDS.incrementAndGet() + ";";
+	}
+
+	private void awaitStored(String query) throws InterruptedException {
+		String key = storeKey(query);
+		for (int i = 0; i < 100 && responseStore.find(key) == null; i++) {
+			Thread.sleep(20);
+		}
+	}
+
+	private static String storeKey(String query) {
+		return IgdbClient.GAMES + ": " + IgdbClient.normalizeQuery(query);
+	}
+
+	private static StubIgdbServer startStub() {
+		try {
+			return new StubIgdbServer();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
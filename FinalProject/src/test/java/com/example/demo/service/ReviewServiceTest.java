@@ -0,0 +1,52 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameRatingStats;
+import com.example.demo.model.GamesPlayed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReviewServiceTest {
+
+	@Autowired
+	private ReviewService reviewService;
+
+	@Test
+	void ratingStatsFollowInsertsAndUpdates() {
+		// The scratch database outlives a test run, so use a game nobody has reviewed yet
+		long gameId = ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+
+		assertTrue(reviewService.saveReview(review(1L, gameId, 80)));
+		assertTrue(reviewService.saveReview(review(2L, gameId, 60)));
+		assertTrue(reviewService.saveReview(review(1L, gameId, 90))); // User 1 changes their score
+
+		GameRatingStats stats = reviewService.getRatingStats(gameId);
+		assertEquals(150.0, stats.getTotal());
+		assertEquals(2, stats.getCount());
+		assertEquals(90.0, reviewService.getReview(1L, gameId).orElseThrow().getRatingScore());
+	}
+
+	@Test
+	void unreviewedGameHasEmptyStats() {
+		GameRatingStats stats = reviewService.getRatingStats(-42L);
+
+		assertEquals(0.0, stats.getTotal());
+		assertEquals(0, stats.getCount());
+	}
+
+	private static GamesPlayed review(Long userId, Long gameId, double score) {
+		GamesPlayed review = new GamesPlayed();
+		review.setUserId(userId);
+		review.setGameId(gameId);
+		review.setRatingScore(score);
+		review.setReviewComment("Test review");
+		return review;
+	}
+
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the IGDB API. Serves a fixed body per endpoint and records the requests it receives.
+ * Faults are injected with error statuses, latency, or dropped connections.
+ */
+public class StubIgdbServer {
+
+	private final HttpServer server;
+	private final Map<String, String> bodies = new ConcurrentHashMap<>();
+	private final Map<String, Integer> statuses = new ConcurrentHashMap<>();
+	private final List<String> queries = new CopyOnWriteArrayList<>();
+	private final List<String> authorizations = new CopyOnWriteArrayList<>();
+	private final AtomicInteger requestCount = new AtomicInteger();
+	private volatile Duration latency = Duration.ZERO;
+	private volatile boolean dropConnections;
+
+	public StubIgdbServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/", this::handle);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	public String baseUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	/**
+	 * Sets the body served for an endpoint, e.g. "games" or "genres", with HTTP 200.
+	 */
+	public void respond(String endpoint, String body) {
+		respond(endpoint, 200, body);
+	}
+
+	public void respond(String endpoint, int status, String body) {
+		bodies.put("/" + endpoint, body);
+		statuses.put("/" + endpoint, status);
+	}
+
+	/**
+	 * Delays every response by the given amount, to imitate the round trip to the real API.
+	 */
+	public void setLatency(Duration latency) {
+		this.latency = latency;
+	}
+
+	/**
+	 * Closes every connection without answering, to imitate the API going away.
+	 */
+	public void setDropConnections(boolean dropConnections) {
+		this.dropConnections = dropConnections;
+	}
+
+	public int requestCount() {
+		return requestCount.get();
+	}
+
+	public List<String> queries() {
+		return queries;
+	}
+
+	public List<String> authorizations() {
+		return authorizations;
+	}
+
+	public void reset() {
+		bodies.clear();
+		statuses.clear();
+		queries.clear();
+		authorizations.clear();
+		requestCount.set(0);
+		latency = Duration.ZERO;
+		dropConnections = false;
+	}
+
+	public void stop() {
+		server.stop(0);
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		queries.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+		authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+
+		if (!latency.isZero()) {
+			try {
+				Thread.sleep(latency.toMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		if (dropConnections) {
+			exchange.close();
+			return;
+		}
+
+		String path = exchange.getRequestURI().getPath();
+		byte[] body = bodies.getOrDefault(path, "[]").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(statuses.getOrDefault(path, 200), body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FacetDictionaryTest {
+
+	@Test
+	void namesGetStableDenseIds() {
+		FacetDictionary dictionary = new FacetDictionary(false);
+
+		assertEquals(0, dictionary.id("Shooter"));
+		assertEquals(1, dictionary.id("Adventure"));
+		assertEquals(0, dictionary.id("Shooter"));
+		assertEquals("Adventure", dictionary.name(1));
+		assertEquals(2, dictionary.size());
+	}
+
+	@Test
+	void encodedListsKeepTheirOrderAndCanBeShared() {
+		FacetDictionary shared = new FacetDictionary(true);
+		FacetDictionary unshared = new FacetDictionary(false);
+
+		int[] first = shared.encode(List.of("Shooter", "Adventure"));
+		assertSame(first, shared.encode(List.of("Shooter", "Adventure")));
+		assertNotSame(unshared.encode(List.of("Shooter")), unshared.encode(List.of("Shooter")));
+		assertEquals("Shooter, Adventure", shared.join(first));
+		assertEquals("Unknown", shared.join(new int[0]));
+	}
+
+	@Test
+	void lookupIgnoresUnknownNames() {
+		FacetDictionary dictionary = new FacetDictionary(true);
+		int[] game = dictionary.encode(List.of("Shooter", "Adventure", "Indie"));
+
+		int[] wanted = dictionary.lookup(List.of("Indie", "Puzzle"));
+
+		assertArrayEquals(new int[]{2}, wanted);
+		assertTrue(FacetDictionary.containsAny(game, wanted));
+		assertFalse(FacetDictionary.containsAny(game, dictionary.lookup(List.of("Puzzle"))));
+		assertEquals(3, dictionary.size());
+	}
+}
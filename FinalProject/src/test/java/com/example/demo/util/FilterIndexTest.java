@@ -0,0 +1,62 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FilterIndexTest {
+
+	private static final FilterIndex INDEX = buildIndex();
+
+	@Test
+	void filtersIntersectAndFacetValuesUnite() {
+		long[] bits = FilterIndex.and(INDEX.anyOf("genre", List.of("Shooter", "Puzzle")), INDEX.ratingBetween(70, 90));
+
+		assertEquals(2, FilterIndex.cardinality(bits)); // 0 and 2; 3 is rated 95
+		assertArrayEquals(new int[]{0, 2}, FilterIndex.select(bits, new int[]{0, 1, 2, 3, 4}, 0, false, 0, 10));
+		assertEquals(0, FilterIndex.cardinality(INDEX.anyOf("genre", List.of("Racing"))));
+	}
+
+	@Test
+	void releaseBandsLeaveOutGamesWithoutADate() {
+		int from = (int) LocalDate.of(2015, 1, 1).toEpochDay();
+		int to = (int) LocalDate.of(2015, 12, 31).toEpochDay();
+
+		assertArrayEquals(new int[]{1, 2}, FilterIndex.select(INDEX.releasedBetween(from, to), new int[]{0, 1, 2, 3, 4}, 0, false, 0, 10));
+		assertEquals(4, FilterIndex.cardinality(INDEX.releasedBetween(FilterIndex.NO_DAY + 1, Integer.MAX_VALUE)));
+	}
+
+	@Test
+	void countsAndPagesFollowTheResult() {
+		long[] all = INDEX.all();
+
+		assertEquals(5, FilterIndex.cardinality(all));
+		assertEquals(Map.of("Shooter", 2, "Puzzle", 2, "Strategy", 2), INDEX.counts("genre", all));
+		assertEquals(Map.of("PC", 2), INDEX.counts("platform", INDEX.ratingBetween(90, 100)));
+
+		// Descending walks from the end; offset skips matches only
+		int[] byRating = {1, 0, 2, 4, 3};
+		assertArrayEquals(new int[]{4, 2}, FilterIndex.select(all, byRating, byRating.length, true, 1, 2));
+	}
+
+	private static FilterIndex buildIndex() {
+		FilterIndex.Builder builder = new FilterIndex.Builder("genre", "platform");
+		add(builder, 80, "2012-05-01", List.of("Shooter"), List.of("PC", "Xbox One"));
+		add(builder, 60, "2015-03-10", List.of("Strategy"), List.of("Mac"));
+		add(builder, 85, "2015-11-20", List.of("Puzzle", "Strategy"), List.of("Nintendo Switch"));
+		add(builder, 95, "2020-09-15", List.of("Shooter"), List.of("PC"));
+		add(builder, 90.5, null, List.of("Puzzle"), List.of("PC"));
+		return builder.build();
+	}
+
+	private static void add(FilterIndex.Builder builder, double rating, String releaseDate, List<String> genres, List<String> platforms) {
+		int day = releaseDate == null ? FilterIndex.NO_DAY : (int) LocalDate.parse(releaseDate).toEpochDay();
+		int doc = builder.add(rating, day);
+		builder.tag(doc, "genre", genres).tag(doc, "platform", platforms);
+	}
+}
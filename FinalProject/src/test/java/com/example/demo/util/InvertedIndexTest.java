@@ -0,0 +1,58 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InvertedIndexTest {
+
+	private static final InvertedIndex INDEX = buildIndex();
+
+	@Test
+	void everyWordHasToMatchAndNameHitsRankFirst() {
+		// 0 has "witcher" in its name, 2 only in its description; 1 lacks "wild"
+		assertArrayEquals(new int[]{0, 2}, INDEX.search("witcher wild", 10, 0));
+		assertEquals(2, INDEX.count("witcher wild"));
+	}
+
+	@Test
+	void lastWordMatchesAsPrefix() {
+		assertArrayEquals(new int[]{3}, INDEX.search("Pokémon Emer", 10, 0));
+		assertEquals(List.of("emerald"), INDEX.complete("emer", 5));
+	}
+
+	@Test
+	void misspelledWordsMatchCloseTerms() {
+		assertArrayEquals(new int[]{3}, INDEX.search("pokemno emerald", 10, 0));
+		assertArrayEquals(new int[0], INDEX.search("xyzzy", 10, 0));
+	}
+
+	@Test
+	void pagesAreStable() {
+		int[] all = INDEX.search("game", 10, 0);
+
+		assertEquals(4, all.length);
+		assertArrayEquals(new int[]{all[1], all[2]}, INDEX.search("game", 2, 1));
+		assertArrayEquals(new int[0], INDEX.search("game", 2, 10));
+	}
+
+	@Test
+	void editDistanceCountsTranspositionsAsOneEdit() {
+		assertEquals(1, InvertedIndex.editDistance("teh", "the", 2));
+		assertEquals(2, InvertedIndex.editDistance("kitten", "sitten!", 2));
+		assertEquals(2, InvertedIndex.editDistance("abcdef", "uvwxyz", 1)); // Gives up past the maximum
+	}
+
+	private static InvertedIndex buildIndex() {
+		InvertedIndex.Builder builder = new InvertedIndex.Builder(3.0, 1.0, 1.0, 0.5);
+		builder.add("The Witcher 3: Wild Hunt", "CD Projekt RED", "CD Projekt", "An open world game set in the wild.");
+		builder.add("The Witcher", "CD Projekt RED", "Atari", "The first game about a witcher.");
+		builder.add("Wild Arms", "Media.Vision", "Sony", "A game inspired by The Witcher.");
+		builder.add("Pokémon Emerald", "Game Freak", "Nintendo", null);
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixIndexTest {
+
+	private static final PrefixIndex INDEX = new PrefixIndex.Builder()
+			.add(1, "The Witcher 3: Wild Hunt", 3120)
+			.add(2, "The Witcher", 900)
+			.add(3, "Wild Arms", 150)
+			.add(4, "Pokémon Emerald", 2400)
+			.add(5, "Witch It", 900)
+			.add(6, "!!!", 10_000) // Nothing to complete, ignored
+			.build();
+
+	@Test
+	void completesFromAnyWordStartMostPopularFirst() {
+		assertEquals(List.of(1L, 5L, 2L), ids(INDEX.complete("witc", 10, id -> false)));
+		assertEquals(List.of(1L, 3L), ids(INDEX.complete("WILD", 10, id -> false)));
+		assertEquals(List.of(1L), ids(INDEX.complete("witcher 3 wi", 10, id -> false)));
+		assertEquals(List.of(4L), ids(INDEX.complete("pokemon", 10, id -> false)));
+	}
+
+	@Test
+	void gameMatchingTwiceIsSuggestedOnce() {
+		assertEquals(List.of(1L, 2L), ids(INDEX.complete("the", 10, id -> false)));
+		assertEquals(List.of(1L), ids(INDEX.complete("w", 1, id -> false)));
+	}
+
+	@Test
+	void skippedIdsAndUnknownPrefixesReturnNothing() {
+		assertEquals(List.of(5L, 2L), ids(INDEX.complete("witc", 10, id -> id == 1))); // Ties: "witch it" sorts before "witcher";
+		assertEquals(List.of(), INDEX.complete("zelda", 10, id -> false));
+		assertEquals(List.of(), INDEX.complete("  ", 10, id -> false));
+		assertTrue(INDEX.contains(4));
+		assertFalse(INDEX.contains(6));
+	}
+
+	@Test
+	void addAllCopiesEverythingButSkippedIds() {
+		PrefixIndex copy = new PrefixIndex.Builder().addAll(INDEX, id -> id == 2).add(2, "The Witcher: Enhanced", 5000).build();
+
+		assertEquals(5, copy.size());
+		assertEquals("The Witcher: Enhanced", copy.complete("witcher", 1, id -> false).get(0).text());
+	}
+
+	private static List<Long> ids(List<PrefixIndex.Completion> completions) {
+		return completions.stream().map(PrefixIndex.Completion::id).toList();
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.example.demo.util;
+
+import com.example.demo.util.RequestGovernor.Outcome;
+import com.example.demo.util.RequestGovernor.Permit;
+import com.example.demo.util.RequestGovernor.Priority;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestGovernorTest {
+
+	private static final Map<Priority, Duration> WAITS = Map.of(
+			Priority.HIGH, Duration.ofSeconds(5), Priority.NORMAL, Duration.ofSeconds(5), Priority.LOW, Duration.ofSeconds(5));
+
+	@Test
+	void burstGoesAtOnceThenRequestsArePacedByTheRate() throws Exception {
+		RequestGovernor governor = new RequestGovernor(20, 2, 8, WAITS);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			governor.acquire(Priority.NORMAL).get(2, TimeUnit.SECONDS).release(Outcome.SUCCESS);
+		}
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		// Two from the bucket, three more at 50 ms apart
+		assertTrue(elapsed >= 120, "took " + elapsed + " ms");
+		assertEquals(5, governor.getPermittedCount());
+	}
+
+	@Test
+	void waitingRequestsGoHighestPriorityFirst() throws Exception {
+		RequestGovernor governor = new RequestGovernor(1000, 10, 1, WAITS); // One request in flight at a time
+		Permit first = governor.acquire(Priority.NORMAL).get();
+
+		List<Priority> order = new CopyOnWriteArrayList<>();
+		CompletableFuture<Permit> low = governor.acquire(Priority.LOW).whenComplete((permit, e) -> order.add(Priority.LOW));
+		CompletableFuture<Permit> normal = governor.acquire(Priority.NORMAL).whenComplete((permit, e) -> order.add(Priority.NORMAL));
+		CompletableFuture<Permit> high = governor.acquire(Priority.HIGH).whenComplete((permit, e) -> order.add(Priority.HIGH));
+		assertEquals(3, governor.getQueued());
+
+		first.release(Outcome.SUCCESS);
+		high.get(2, TimeUnit.SECONDS).release(Outcome.SUCCESS);
+		normal.get(2, TimeUnit.SECONDS).release(Outcome.SUCCESS);
+		low.get(2, TimeUnit.SECONDS).release(Outcome.SUCCESS);
+
+		assertEquals(List.of(Priority.HIGH, Priority.NORMAL, Priority.LOW), order);
+		assertEquals(0, governor.getInFlight());
+	}
+
+	@Test
+	void requestsThatWouldWaitTooLongAreShed() throws Exception {
+		RequestGovernor governor = new RequestGovernor(1, 1, 8, Map.of(Priority.NORMAL, Duration.ofMillis(200)));
+		governor.acquire(Priority.NORMAL).get().release(Outcome.SUCCESS);
+
+		// The next token is a second away: turned away at once rather than queued
+		CompletableFuture<Permit> shed = governor.acquire(Priority.NORMAL);
+		assertTrue(shed.isCompletedExceptionally());
+		ExecutionException error = assertThrows(ExecutionException.class, shed::get);
+		assertInstanceOf(RejectedExecutionException.class, error.getCause());
+		assertEquals(1, governor.getShedCount());
+	}
+
+	@Test
+	void queuedRequestsAreShedWhenTheirWaitRunsOutAndOverloadHalvesTheLimit() throws Exception {
+		RequestGovernor governor = new RequestGovernor(1000, 10, 2, Map.of(Priority.HIGH, Duration.ofMillis(100)));
+		Permit held = governor.acquire(Priority.HIGH).get();
+		assertEquals(1, governor.getLimit());
+
+		CompletableFuture<Permit> waiting = governor.acquire(Priority.HIGH); // Tokens to spare, but no free slot
+		assertFalse(waiting.isDone());
+		ExecutionException error = assertThrows(ExecutionException.class, () -> waiting.get(2, TimeUnit.SECONDS));
+		assertInstanceOf(RejectedExecutionException.class, error.getCause());
+		assertEquals(0, governor.getQueued());
+
+		held.release(Outcome.SUCCESS);
+		assertEquals(2, governor.getLimit());
+		governor.acquire(Priority.HIGH).get().release(Outcome.OVERLOADED);
+		assertEquals(1, governor.getLimit());
+		assertEquals(1, governor.getOverloadedCount());
+	}
+
+	@Test
+	void interruptedWaitersGiveTheirSlotBack() throws Exception {
+		RequestGovernor governor = new RequestGovernor(1000, 10, 2, WAITS); // One request in flight at a time
+		Permit held = governor.acquire(Priority.NORMAL).get();
+
+		Thread waiter = new Thread(() -> {
+			try {
+				governor.await(Priority.NORMAL).release(Outcome.SUCCESS);
+			} catch (InterruptedException e) {
+				// Expected
+			}
+		});
+		waiter.start();
+		while (governor.getQueued() == 0) {
+			Thread.sleep(5);
+		}
+		waiter.interrupt();
+		waiter.join(2000);
+		assertFalse(waiter.isAlive());
+
+		held.release(Outcome.FAILED);
+		assertEquals(0, governor.getInFlight());
+		governor.acquire(Priority.NORMAL).get(2, TimeUnit.SECONDS).release(Outcome.SUCCESS);
+		assertEquals(0, governor.getInFlight());
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.demo.util;
+
+import com.example.demo.model.GameProjection;
+import com.example.demo.model.VideoGame;
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResultSetMapperTest {
+
+	private static final String RESPONSE = """
+			[
+			  {"id": 1942, "name": "The Witcher 3: Wild Hunt", "rating": 93.456789, "total_rating_count": 3120,
+			   "summary": "RPG set in an open world.", "first_release_date": 1431993600,
+			   "cover": {"id": 89386, "url": "//images.igdb.com/igdb/image/upload/t_thumb/co1wyy.jpg"},
+			   "genres": [{"id": 12, "name": "Role-playing (RPG)"}, {"id": 31, "name": "Adventure"}],
+			   "platforms": [{"id": 6, "name": "PC (Microsoft Windows)"}, {"id": 48, "name": "PlayStation 4"}],
+			   "involved_companies": [
+			     {"id": 1, "company": {"id": 908, "name": "CD Projekt RED"}, "publisher": false},
+			     {"id": 2, "company": {"id": 3386, "name": "Bandai Namco"}, "publisher": true},
+			     {"id": 3, "publisher": true}
+			   ]},
+			  {"id": 7, "cover": null, "tags": [{"nested": [1, 2, {"a": "b"}]}]},
+			  {"id": 8, "name": "No extras", "involved_companies": []}
+			]
+			""";
+
+	@Test
+	void streamingMapperMatchesJsonArrayMapper() throws Exception {
+		List<VideoGame> expected = ResultSetMapper.mapApiResponseToVideoGames(new JSONArray(RESPONSE));
+		List<VideoGame> actual = ResultSetMapper.mapApiResponseToVideoGames(
+				new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			VideoGame e = expected.get(i);
+			VideoGame a = actual.get(i);
+			assertEquals(e.getGameId(), a.getGameId());
+			assertEquals(e.getGameName(), a.getGameName());
+			assertEquals(e.getGenre(), a.getGenre());
+			assertEquals(e.getPlatform(), a.getPlatform());
+			assertEquals(e.getInvolvedCompanies(), a.getInvolvedCompanies());
+			assertEquals(e.getDeveloper(), a.getDeveloper());
+			assertEquals(e.getPublisher(), a.getPublisher());
+			assertEquals(e.getRating(), a.getRating());
+			assertEquals(e.getReviewCount(), a.getReviewCount());
+			assertEquals(e.getMaturityRating(), a.getMaturityRating());
+			assertEquals(e.getDescription(), a.getDescription());
+			assertEquals(e.getImageUrl(), a.getImageUrl());
+			assertEquals(e.getReleaseDate(), a.getReleaseDate());
+		}
+	}
+
+	@Test
+	void listProjectionMapsOnlyListFields() throws Exception {
+		VideoGame game = ResultSetMapper.mapApiResponseToVideoGames(
+				new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8)), GameProjection.LIST).get(0);
+
+		assertEquals("The Witcher 3: Wild Hunt", game.getGameName());
+		assertEquals("PC (Microsoft Windows), PlayStation 4", game.getPlatform());
+		assertEquals(93.46, game.getRating());
+		assertEquals("//images.igdb.com/igdb/image/upload/t_thumb/co1wyy.jpg", game.getImageUrl());
+		assertNull(game.getDescription());
+		assertNull(game.getInvolvedCompanies());
+		assertNull(game.getPublisher());
+	}
+
+}
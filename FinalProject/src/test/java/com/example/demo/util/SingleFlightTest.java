@@ -0,0 +1,119 @@
+package com.example.demo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+	@Test
+	void concurrentBlockingCallsShareOneExecution() throws Exception {
+		SingleFlight<String, List<String>> flight = new SingleFlight<>();
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+
+		List<Future<List<String>>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(callers.submit(() -> flight.call("q", () -> {
+				executions.incrementAndGet();
+				release.await(5, TimeUnit.SECONDS);
+				return List.of("result");
+			})));
+		}
+		// Let every other caller join the in-flight call before the leader finishes
+		while (flight.getCoalescedCount() < 7) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+
+		for (Future<List<String>> result : results) {
+			assertSame(results.get(0).get(), result.get());
+		}
+		assertEquals(1, executions.get());
+		assertEquals(7, flight.getCoalescedCount());
+		callers.shutdown();
+	}
+
+	@Test
+	void asyncCallsShareOneExecutionAndReleaseTheKeyAfterwards() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CompletableFuture<String> upstream = new CompletableFuture<>();
+		AtomicInteger executions = new AtomicInteger();
+
+		CompletableFuture<String> first = flight.execute("q", () -> {
+			executions.incrementAndGet();
+			return upstream;
+		});
+		CompletableFuture<String> second = flight.execute("q", () -> {
+			executions.incrementAndGet();
+			return upstream;
+		});
+		upstream.complete("done");
+
+		assertEquals("done", first.get());
+		assertEquals("done", second.get());
+		assertEquals(1, executions.get());
+
+		flight.execute("q", () -> {
+			executions.incrementAndGet();
+			return CompletableFuture.completedFuture("again");
+		}).get();
+		assertEquals(2, executions.get());
+	}
+
+	@Test
+	void failuresReachEveryWaiter() {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+
+		assertThrows(IllegalStateException.class, () -> flight.call("q", () -> {
+			throw new IllegalStateException("upstream down");
+		}));
+	}
+
+	@Test
+	void errorsReleaseTheKey() throws Exception {
+		SingleFlight<String, String> flight = new SingleFlight<>();
+		CountDownLatch joined = new CountDownLatch(1);
+		ExecutorService callers = Executors.newSingleThreadExecutor();
+
+		Future<String> leader = callers.submit(() -> flight.call("q", () -> {
+			joined.await(5, TimeUnit.SECONDS);
+			throw new AssertionError("mapper bug");
+		}));
+		while (flight.getCallCount() < 1) {
+			Thread.sleep(1);
+		}
+		CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> {
+			try {
+				return flight.call("q", () -> "not run");
+			} catch (Exception e) {
+				return "failed";
+			}
+		});
+		while (flight.getCoalescedCount() < 1) {
+			Thread.sleep(1);
+		}
+		joined.countDown();
+
+		ExecutionException error = assertThrows(ExecutionException.class, leader::get);
+		assertInstanceOf(AssertionError.class, error.getCause());
+		assertEquals("failed", follower.get(5, TimeUnit.SECONDS));
+		assertEquals("fresh", flight.call("q", () -> "fresh"));
+		callers.shutdown();
+	}
+}